@@ -0,0 +1,137 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Diff two JMH CSV result files (-rf csv) and flag regressions.
+// Usage: java -cp target/benchmarks.jar bench.BaselineCompare baseline.csv current.csv [maxRegressionPercent]
+// Exits with status 1 when any benchmark regressed by more than the threshold (default 5%).
+public class BaselineCompare {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCompare <baseline.csv> <current.csv> [maxRegressionPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+
+        Map<String, Result> baseline = read(Paths.get(args[0]));
+        Map<String, Result> current = read(Paths.get(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+            double change = (now.score - before.score) / before.score * 100.0;
+            // Positive "worse" means the run got slower / allocated more
+            double worse = now.higherIsBetter() ? -change : change;
+            boolean regressed = worse > threshold;
+            if (regressed) regressions++;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%%s%n",
+                entry.getKey(), before.score, now.score, change, regressed ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s %14.3f %14s %9s%n", key, baseline.get(key).score, "-", "missing");
+            }
+        }
+
+        System.out.println();
+        System.out.println(regressions + " regression(s) above " + threshold + "%");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static final class Result {
+        final String mode;
+        final String unit;
+        final double score;
+
+        Result(String mode, String unit, double score) {
+            this.mode = mode;
+            this.unit = unit;
+            this.score = score;
+        }
+
+        // Throughput is better when larger; times and allocation rates when smaller
+        boolean higherIsBetter() {
+            return mode.equals("thrpt") && unit.startsWith("ops/");
+        }
+    }
+
+    // Key: benchmark name plus every "Param: x" column, e.g. "SquareBenchmarks.add size=64"
+    private static Map<String, Result> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (lines.isEmpty()) return results;
+
+        List<String> header = splitCsv(lines.get(0));
+        int benchCol = header.indexOf("Benchmark");
+        int modeCol = header.indexOf("Mode");
+        int scoreCol = header.indexOf("Score");
+        int unitCol = header.indexOf("Unit");
+        if (benchCol < 0 || modeCol < 0 || scoreCol < 0 || unitCol < 0) {
+            throw new IOException(file + " is not a JMH CSV result file");
+        }
+
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) continue;
+            List<String> row = splitCsv(lines.get(i));
+            // Only the primary score and bytes per op are stable enough to gate on;
+            // GC counts/times and MB/sec rates vary run to run
+            String bench = row.get(benchCol);
+            if (bench.contains(":") && !bench.endsWith(":gc.alloc.rate.norm")) continue;
+            StringBuilder key = new StringBuilder(bench.replaceFirst("^bench\\.", ""));
+            for (int c = 0; c < header.size(); c++) {
+                String name = header.get(c);
+                if (name.startsWith("Param: ") && c < row.size() && !row.get(c).isEmpty()) {
+                    key.append(' ').append(name.substring(7)).append('=').append(row.get(c));
+                }
+            }
+            // JMH writes numbers with the default locale; accept a decimal comma
+            double score = Double.parseDouble(row.get(scoreCol).replace(',', '.'));
+            results.put(key.toString(), new Result(row.get(modeCol), row.get(unitCol), score));
+        }
+        return results;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
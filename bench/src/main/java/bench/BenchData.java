@@ -0,0 +1,30 @@
+package bench;
+
+import core.Matrix;
+import core.MatrixOperations;
+
+import java.util.Random;
+
+// Reproducible benchmark inputs (Matrix.random is unseeded)
+final class BenchData {
+    private BenchData() {}
+
+    static Matrix random(int rows, int cols, long seed) {
+        Random rand = new Random(seed);
+        double[] data = new double[rows * cols];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = rand.nextDouble() * 2 - 1;
+        }
+        return Matrix.wrap(rows, cols, data);
+    }
+
+    // Diagonally dominant, so inverse/determinant/power stay finite at every size
+    static Matrix wellConditioned(int n, long seed) {
+        Matrix m = random(n, n, seed);
+        for (int i = 0; i < n; i++) {
+            m.set(i, i, m.get(i, i) + n);
+        }
+        // Keep power() in range: scale so the diagonal is about 1
+        return MatrixOperations.scalarMultiply(m, 1.0 / n);
+    }
+}
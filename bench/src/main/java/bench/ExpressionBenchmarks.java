@@ -0,0 +1,66 @@
+package bench;
+
+import core.Matrix;
+import core.MatrixExpression;
+import core.MatrixOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Eager MatrixOperations pipelines against the same expression evaluated lazily
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ExpressionBenchmarks {
+    @Param({"256", "1024", "2048"})
+    public int size;
+
+    private Matrix a;
+    private Matrix b;
+    private Matrix c;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        a = BenchData.random(size, size, 1);
+        b = BenchData.random(size, size, 2);
+        c = BenchData.random(size, size, 3);
+    }
+
+    // A * B + 2 * C
+    @Benchmark
+    public Matrix gemmPlusEager() {
+        return MatrixOperations.add(MatrixOperations.multiply(a, b), MatrixOperations.scalarMultiply(c, 2));
+    }
+
+    @Benchmark
+    public Matrix gemmPlusLazy() {
+        return MatrixExpression.of(a).multiply(b).plus(MatrixExpression.of(c).scale(2)).evaluate();
+    }
+
+    // A + B^T - 2 * C
+    @Benchmark
+    public Matrix elementwiseEager() {
+        return MatrixOperations.subtract(MatrixOperations.add(a, MatrixOperations.transpose(b)),
+                                         MatrixOperations.scalarMultiply(c, 2));
+    }
+
+    @Benchmark
+    public Matrix elementwiseLazy() {
+        return MatrixExpression.of(a).plus(MatrixExpression.of(b).transpose())
+                               .minus(MatrixExpression.of(c).scale(2)).evaluate();
+    }
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import core.Matrix;
+import core.MatrixOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Non-square products: A is m x k, B is k x n
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ShapeBenchmarks {
+    // "m x k x n": skinny (tall A), fat (wide A), outer product, inner product, panel
+    @Param({"4096x16x16", "16x4096x16", "4096x16x4096", "16x4096x4096", "2048x64x2048", "1x4096x4096"})
+    public String shape;
+
+    private Matrix a;
+    private Matrix b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] dims = shape.split("x");
+        int m = Integer.parseInt(dims[0]);
+        int k = Integer.parseInt(dims[1]);
+        int n = Integer.parseInt(dims[2]);
+        a = BenchData.random(m, k, 1);
+        b = BenchData.random(k, n, 2);
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return MatrixOperations.multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix transpose() {
+        return MatrixOperations.transpose(a);
+    }
+
+    @Benchmark
+    public Matrix add() {
+        return MatrixOperations.add(a, a);
+    }
+}
@@ -0,0 +1,82 @@
+package bench;
+
+import core.Matrix;
+import core.MatrixOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Every MatrixOperations method on n x n operands
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SquareBenchmarks {
+    @Param({"4", "16", "64", "256", "1024", "4096"})
+    public int size;
+
+    @Param({"8"})
+    public int exponent;
+
+    private Matrix a;
+    private Matrix b;
+    private Matrix rowVector;
+    private Matrix otherRowVector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        a = BenchData.wellConditioned(size, 1);
+        b = BenchData.wellConditioned(size, 2);
+        rowVector = BenchData.random(1, size * size, 3);
+        otherRowVector = BenchData.random(1, size * size, 4);
+    }
+
+    @Benchmark
+    public Matrix add() {
+        return MatrixOperations.add(a, b);
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return MatrixOperations.multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix transpose() {
+        return MatrixOperations.transpose(a);
+    }
+
+    @Benchmark
+    public Matrix inverse() {
+        return MatrixOperations.inverse(a);
+    }
+
+    @Benchmark
+    public double determinant() {
+        return MatrixOperations.determinant(a);
+    }
+
+    @Benchmark
+    public Matrix power() {
+        return MatrixOperations.power(a, exponent);
+    }
+
+    // n^2-element vectors, so the streamed data matches the matrix benchmarks
+    @Benchmark
+    public double dotProduct() {
+        return MatrixOperations.dotProduct(rowVector, otherRowVector);
+    }
+}
@@ -0,0 +1,54 @@
+package bench;
+
+import core.Matrix;
+import core.MatrixOperations;
+import core.MultiplyAlgorithm;
+import core.StrassenMultiply;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Strassen-Winograd against the classical blocked kernel on large square products
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx8g"})
+public class StrassenBenchmarks {
+    // Odd sizes exercise the padding path
+    @Param({"1024", "2048", "3000", "4096"})
+    public int size;
+
+    @Param({"CLASSICAL", "STRASSEN"})
+    public MultiplyAlgorithm algorithm;
+
+    @Param({"512"})
+    public int cutoff;
+
+    private Matrix a;
+    private Matrix b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StrassenMultiply.setCutoff(cutoff);
+        a = BenchData.random(size, size, 1);
+        b = BenchData.random(size, size, 2);
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return MatrixOperations.multiply(a, b, algorithm);
+    }
+}
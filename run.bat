@@ -5,14 +5,15 @@ echo.
 if exist bin rmdir /s /q bin >nul
 mkdir bin 2>nul
 
-javac -cp "src;lib/flatlaf-3.2.1.jar" -encoding UTF8 -d bin ^
+javac --add-modules jdk.incubator.vector -cp "src;lib/flatlaf-3.2.1.jar" -encoding UTF8 -d bin ^
     src/Main.java ^
     src/core/*.java ^
+    src/cli/*.java ^
     src/ui/*.java
 
 echo.
 echo Running Matrix Calculator...
 echo.
-java -cp "bin;lib/flatlaf-3.2.1.jar" Main
+java --add-modules jdk.incubator.vector -cp "bin;lib/flatlaf-3.2.1.jar" Main
 
 pause
\ No newline at end of file
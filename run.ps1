@@ -9,11 +9,11 @@ New-Item -ItemType Directory -Path "bin" -Force | Out-Null
 
 # Compile
 Write-Host "Compiling..." -ForegroundColor Yellow
-javac -cp "lib/flatlaf-3.2.1.jar" -d bin src/*.java src/core/*.java src/ui/*.java
+javac --add-modules jdk.incubator.vector -cp "lib/flatlaf-3.2.1.jar" -d bin src/*.java src/core/*.java src/cli/*.java src/ui/*.java
 
 if ($LASTEXITCODE -eq 0) {
     Write-Host "Launching..." -ForegroundColor Green
-    java -cp "bin;lib/flatlaf-3.2.1.jar" Main
+    java --add-modules jdk.incubator.vector -cp "bin;lib/flatlaf-3.2.1.jar" Main
 } else {
     Write-Host "Compilation failed!" -ForegroundColor Red
     pause
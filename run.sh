@@ -19,7 +19,7 @@ mkdir -p bin
 
 # Compile
 echo "Compiling..."
-javac -cp "lib/flatlaf-3.2.1.jar" -d bin src/*.java src/core/*.java src/ui/*.java
+javac --add-modules jdk.incubator.vector -cp "lib/flatlaf-3.2.1.jar" -d bin src/*.java src/core/*.java src/cli/*.java src/ui/*.java
 
 if [ $? -ne 0 ]; then
     echo "❌ Compilation failed!"
@@ -32,4 +32,4 @@ echo "🚀 Launching Matrix Calculator..."
 echo ""
 
 # Run with correct separator
-java -cp "bin${SEP}lib/flatlaf-3.2.1.jar" Main
\ No newline at end of file
+java --add-modules jdk.incubator.vector -cp "bin${SEP}lib/flatlaf-3.2.1.jar" Main
\ No newline at end of file
@@ -1,11 +1,18 @@
 
+import cli.BatchRunner;
 import ui.MatrixCalculatorUI;
 import com.formdev.flatlaf.FlatLightLaf;
 import javax.swing.*;
 import java.awt.*;
+import java.util.Arrays;
 
 public class Main {
     public static void main(String[] args) {
+        // Headless batch mode: dispatched before anything touches AWT, Swing or FlatLaf
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(BatchRunner.run(Arrays.copyOfRange(args, 1, args.length), System.out, System.err));
+        }
+        
         // Set FlatLaf modern look and feel
         FlatLightLaf.setup();
         
@@ -0,0 +1,133 @@
+package cli;
+
+import core.Matrix;
+import core.MatrixException;
+import core.MatrixOperations;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// One line of a batch script:  <operation> <input files...> [number] [-> output file]
+// Matrix results need an output; scalar results (determinant, trace, dot) are printed
+// and optionally written to a text file.
+final class BatchJob {
+    enum Operation {
+        ADD("add", 2, false, true),
+        SUBTRACT("subtract", 2, false, true),
+        MULTIPLY("multiply", 2, false, true),
+        SOLVE("solve", 2, false, true),
+        DOT("dot", 2, false, false),
+        TRANSPOSE("transpose", 1, false, true),
+        INVERSE("inverse", 1, false, true),
+        DETERMINANT("determinant", 1, false, false),
+        TRACE("trace", 1, false, false),
+        POWER("power", 1, true, true),
+        SCALE("scale", 1, true, true);
+        
+        final String keyword;
+        final int inputs;
+        final boolean numberArgument;
+        final boolean matrixResult;
+        
+        Operation(String keyword, int inputs, boolean numberArgument, boolean matrixResult) {
+            this.keyword = keyword;
+            this.inputs = inputs;
+            this.numberArgument = numberArgument;
+            this.matrixResult = matrixResult;
+        }
+        
+        static Operation of(String keyword) {
+            for (Operation op : values()) {
+                if (op.keyword.equals(keyword)) return op;
+            }
+            return null;
+        }
+    }
+    
+    final int number;
+    final int line;
+    final String text;
+    final Operation operation;
+    final Path[] inputs;
+    final double argument;
+    final Path output;
+    
+    private BatchJob(int number, int line, String text, Operation operation, Path[] inputs, double argument, Path output) {
+        this.number = number;
+        this.line = line;
+        this.text = text;
+        this.operation = operation;
+        this.inputs = inputs;
+        this.argument = argument;
+        this.output = output;
+    }
+    
+    // Parse a non-blank, non-comment script line; relative paths resolve against baseDir
+    static BatchJob parse(int number, int line, String text, Path baseDir) {
+        String[] words = text.trim().split("\\s+");
+        Operation op = Operation.of(words[0].toLowerCase(Locale.ROOT));
+        if (op == null) {
+            throw new MatrixException("Line " + line + ": unknown operation '" + words[0] + "'");
+        }
+        List<String> args = new ArrayList<>();
+        String output = null;
+        for (int i = 1; i < words.length; i++) {
+            if (words[i].equals("->")) {
+                if (i != words.length - 2) {
+                    throw new MatrixException("Line " + line + ": expected one output file after '->'");
+                }
+                output = words[i + 1];
+                break;
+            }
+            args.add(words[i]);
+        }
+        int expected = op.inputs + (op.numberArgument ? 1 : 0);
+        if (args.size() != expected) {
+            throw new MatrixException("Line " + line + ": " + op.keyword + " takes " + op.inputs + " input file" +
+                                      (op.inputs > 1 ? "s" : "") + (op.numberArgument ? " and a number" : "") +
+                                      ", found " + args.size() + " argument" + (args.size() == 1 ? "" : "s"));
+        }
+        if (op.matrixResult && output == null) {
+            throw new MatrixException("Line " + line + ": " + op.keyword + " needs an output ('-> file')");
+        }
+        
+        Path[] inputs = new Path[op.inputs];
+        for (int i = 0; i < op.inputs; i++) {
+            inputs[i] = baseDir.resolve(args.get(i)).normalize();
+        }
+        double argument = 0;
+        if (op.numberArgument) {
+            String value = args.get(op.inputs);
+            try {
+                argument = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new MatrixException("Line " + line + ": '" + value + "' is not a number");
+            }
+            if (op == Operation.POWER && (argument != Math.rint(argument) || Math.abs(argument) > Integer.MAX_VALUE)) {
+                throw new MatrixException("Line " + line + ": power needs an integer exponent");
+            }
+        }
+        Path out = output == null ? null : baseDir.resolve(output).normalize();
+        return new BatchJob(number, line, text.trim(), op, inputs, argument, out);
+    }
+    
+    // Matrix or Double result of the operation
+    Object execute(Matrix[] in) {
+        switch (operation) {
+            case ADD: return MatrixOperations.add(in[0], in[1]);
+            case SUBTRACT: return MatrixOperations.subtract(in[0], in[1]);
+            case MULTIPLY: return MatrixOperations.multiply(in[0], in[1]);
+            case SOLVE: return MatrixOperations.solve(in[0], in[1]);
+            case DOT: return MatrixOperations.dotProduct(in[0], in[1]);
+            case TRANSPOSE: return MatrixOperations.transpose(in[0]);
+            case INVERSE: return MatrixOperations.inverse(in[0]);
+            case DETERMINANT: return MatrixOperations.determinant(in[0]);
+            case TRACE: return MatrixOperations.trace(in[0]);
+            case POWER: return MatrixOperations.power(in[0], (int) argument);
+            case SCALE: return MatrixOperations.scalarMultiply(in[0], argument);
+            default: throw new IllegalStateException(operation.keyword);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,269 @@
+package cli;
+
+import core.CsvFile;
+import core.Matrix;
+import core.MatrixException;
+import core.MatrixFile;
+import core.MatrixMarketFile;
+import core.ParallelExecutor;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless runner for batch scripts (Main --batch). Uses only core and java.base, so no
+// AWT or Swing class is ever loaded.
+//
+// Script format, one job per line ('#' starts a comment, paths are relative to the script):
+//   multiply a.csv b.csv -> c.csv
+//   power c.csv 3 -> c3.mtxb
+//   determinant c.csv
+// Jobs run concurrently on a shared pool of job threads (the kernels inside them share
+// ParallelExecutor's pool). A job that reads an earlier job's output takes the matrix
+// from memory, waiting for it if needed; a job that overwrites a file waits for the
+// earlier jobs that read or write it. Every job reports its load, compute and save times.
+public final class BatchRunner {
+    private static final String USAGE =
+        "Usage: java Main --batch <script> [--jobs <n>] [--threads <n>]\n" +
+        "  --jobs     jobs run at once (default: number of processors)\n" +
+        "  --threads  worker threads for the matrix kernels (default: number of processors)\n" +
+        "Script lines: <operation> <inputs...> [number] [-> output]\n" +
+        "  operations: add, subtract, multiply, solve, dot, transpose, inverse,\n" +
+        "              determinant, trace, power <n>, scale <s>\n" +
+        "  files: .csv, .mtx (Matrix Market), ." + MatrixFile.EXTENSION + " (binary)";
+    
+    private BatchRunner() {}
+    
+    // Run the command line after --batch; returns the exit code
+    // (0 all jobs succeeded, 1 some job failed, 2 bad arguments or script)
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Path script = null;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--jobs":
+                        jobs = positive(args, ++i);
+                        break;
+                    case "--threads":
+                        ParallelExecutor.setParallelism(positive(args, ++i));
+                        break;
+                    case "--help":
+                        out.println(USAGE);
+                        return 0;
+                    default:
+                        if (script != null || args[i].startsWith("--")) {
+                            throw new MatrixException("Unexpected argument '" + args[i] + "'");
+                        }
+                        script = Path.of(args[i]);
+                }
+            }
+            if (script == null) {
+                throw new MatrixException("No batch script given");
+            }
+        } catch (MatrixException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        
+        List<BatchJob> batch;
+        try {
+            batch = parse(script);
+        } catch (IOException e) {
+            err.println("Could not read " + script + ": " + e.getMessage());
+            return 2;
+        } catch (MatrixException e) {
+            err.println(script + ": " + e.getMessage());
+            return 2;
+        }
+        return execute(batch, jobs, out);
+    }
+    
+    private static int positive(String[] args, int i) {
+        if (i >= args.length) {
+            throw new MatrixException(args[i - 1] + " needs a value");
+        }
+        try {
+            int value = Integer.parseInt(args[i]);
+            if (value > 0) return value;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new MatrixException(args[i - 1] + " needs a positive integer, found '" + args[i] + "'");
+    }
+    
+    static List<BatchJob> parse(Path script) throws IOException {
+        Path baseDir = script.toAbsolutePath().getParent();
+        List<String> lines = Files.readAllLines(script);
+        List<BatchJob> batch = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String text = lines.get(i);
+            int comment = text.indexOf('#');
+            if (comment >= 0) text = text.substring(0, comment);
+            if (text.isBlank()) continue;
+            BatchJob job = BatchJob.parse(batch.size() + 1, i + 1, text, baseDir);
+            for (Path input : job.inputs) {
+                format(input, job.line);
+            }
+            if (job.output != null && job.operation.matrixResult) {
+                format(job.output, job.line);
+            }
+            batch.add(job);
+        }
+        if (batch.isEmpty()) {
+            throw new MatrixException("no jobs in script");
+        }
+        return batch;
+    }
+    
+    private static String format(Path path, int line) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        String ext = name.substring(name.lastIndexOf('.') + 1);
+        if (ext.equals("csv") || ext.equals("mtx") || ext.equals(MatrixFile.EXTENSION)) {
+            return ext;
+        }
+        throw new MatrixException("Line " + line + ": unsupported matrix file '" + path.getFileName() +
+                                  "' (use .csv, .mtx or ." + MatrixFile.EXTENSION + ")");
+    }
+    
+    static Matrix load(Path path) throws IOException {
+        switch (format(path, 0)) {
+            case "csv": return CsvFile.read(path);
+            case "mtx": return MatrixMarketFile.readDense(path);
+            default: return MatrixFile.load(path);
+        }
+    }
+    
+    static void save(Matrix matrix, Path path) throws IOException {
+        switch (format(path, 0)) {
+            case "csv": CsvFile.write(matrix, path); break;
+            case "mtx": MatrixMarketFile.write(matrix, path); break;
+            default: MatrixFile.save(matrix, path);
+        }
+    }
+    
+    // Per-job stage timings in nanoseconds
+    private static final class Timing {
+        long load, compute, save;
+    }
+    
+    private static int execute(List<BatchJob> batch, int jobs, PrintStream out) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(jobs, r -> {
+            Thread t = new Thread(r, "batch-job-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        
+        // Latest in-memory producer of each path, and every job so far that touched it.
+        // Jobs only ever wait on earlier jobs, and the pool takes them in script order, so
+        // whatever a job waits for is already running or finished.
+        Map<Path, CompletableFuture<Matrix>> producers = new HashMap<>();
+        Map<Path, List<CompletableFuture<Boolean>>> users = new HashMap<>();
+        List<CompletableFuture<Boolean>> outcomes = new ArrayList<>();
+        for (BatchJob job : batch) {
+            List<CompletableFuture<Matrix>> sources = new ArrayList<>();
+            for (Path input : job.inputs) {
+                sources.add(producers.get(input));
+            }
+            List<CompletableFuture<Boolean>> barriers = job.output == null ? List.of()
+                : new ArrayList<>(users.getOrDefault(job.output, List.of()));
+            
+            CompletableFuture<Matrix> result = CompletableFuture.supplyAsync(
+                () -> runJob(job, sources, barriers, batch.size(), out), pool);
+            CompletableFuture<Boolean> outcome = result.handle((m, e) -> e == null);
+            outcomes.add(outcome);
+            for (Path input : job.inputs) {
+                users.computeIfAbsent(input, p -> new ArrayList<>()).add(outcome);
+            }
+            if (job.output != null) {
+                users.computeIfAbsent(job.output, p -> new ArrayList<>()).add(outcome);
+                producers.put(job.output, result);
+            }
+        }
+        // Drop the references so each intermediate matrix can be collected once its last
+        // consumer has run
+        producers.clear();
+        
+        int failed = 0;
+        for (CompletableFuture<Boolean> outcome : outcomes) {
+            if (!outcome.join()) failed++;
+        }
+        pool.shutdown();
+        double wall = (System.nanoTime() - start) / 1e6;
+        out.printf(Locale.ROOT, "Done: %d job%s, %d failed, %.1f ms wall (%d job threads, %d kernel threads)%n",
+                   batch.size(), batch.size() == 1 ? "" : "s", failed, wall, jobs, ParallelExecutor.getParallelism());
+        return failed == 0 ? 0 : 1;
+    }
+    
+    // Body of one job on a pool thread; returns the matrix result (null for scalars)
+    private static Matrix runJob(BatchJob job, List<CompletableFuture<Matrix>> sources,
+                                 List<CompletableFuture<Boolean>> barriers, int total, PrintStream out) {
+        Timing timing = new Timing();
+        try {
+            Matrix[] in = new Matrix[job.inputs.length];
+            for (int i = 0; i < in.length; i++) {
+                CompletableFuture<Matrix> source = sources.get(i);
+                if (source == null) {
+                    long t = System.nanoTime();
+                    in[i] = load(job.inputs[i]);
+                    timing.load += System.nanoTime() - t;
+                    continue;
+                }
+                try {
+                    in[i] = source.join();
+                } catch (CompletionException e) {
+                    throw new MatrixException("input " + job.inputs[i].getFileName() + " was not produced");
+                }
+                if (in[i] == null) {
+                    throw new MatrixException("input " + job.inputs[i].getFileName() + " holds a scalar result");
+                }
+            }
+            
+            long t = System.nanoTime();
+            Object result = job.execute(in);
+            timing.compute = System.nanoTime() - t;
+            
+            for (CompletableFuture<Boolean> barrier : barriers) {
+                barrier.join();
+            }
+            t = System.nanoTime();
+            if (result instanceof Matrix) {
+                save((Matrix) result, job.output);
+            } else if (job.output != null) {
+                Files.writeString(job.output, result + System.lineSeparator());
+            }
+            timing.save = System.nanoTime() - t;
+            
+            report(out, job, total, result instanceof Matrix ? "ok" : "= " + result, timing);
+            return result instanceof Matrix ? (Matrix) result : null;
+        } catch (IOException | RuntimeException e) {
+            String message = e instanceof NoSuchFileException ? "file not found: " + e.getMessage()
+                           : e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            report(out, job, total, "FAILED: " + message, timing);
+            throw new CompletionException(e);
+        }
+    }
+    
+    private static void report(PrintStream out, BatchJob job, int total, String status, Timing timing) {
+        double load = timing.load / 1e6, compute = timing.compute / 1e6, save = timing.save / 1e6;
+        synchronized (out) {
+            out.printf(Locale.ROOT, "[%d/%d] %s: %s (load %.1f ms, compute %.1f ms, save %.1f ms, total %.1f ms)%n",
+                       job.number, total, job.text, status, load, compute, save, load + compute + save);
+        }
+    }
+}
\ No newline at end of file
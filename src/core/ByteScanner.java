@@ -0,0 +1,263 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// Buffered byte-level tokenizer for the text matrix formats. Numbers are parsed straight
+// from the buffer: decimals with at most 15 significant digits and a power of ten within
+// 1e22 are converted exactly with one multiply or divide (Clinger's fast path), and
+// longer ones (full-precision dumps) through DecimalConversion. Only NaN, Infinity,
+// subnormals and the rare undecidable cases fall back to Double.parseDouble on that
+// single token.
+final class ByteScanner {
+    private static final int BUFFER = 1 << 20;
+    // Longest token handled in the buffer without the slow path
+    private static final int MAX_TOKEN = 64;
+    private static final double[] POW10 = new double[23];
+    
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+    
+    private final InputStream in;
+    private final byte[] buf = new byte[BUFFER];
+    private final long total;
+    private final ProgressListener listener;
+    private int pos;
+    private int limit;
+    private long consumed;
+    private boolean eof;
+    private long line = 1;
+    
+    ByteScanner(InputStream in, long total, ProgressListener listener) {
+        this.in = in;
+        this.total = total;
+        this.listener = listener;
+    }
+    
+    long getLine() {
+        return line;
+    }
+    
+    // Bytes consumed so far
+    long offset() {
+        return consumed - (limit - pos);
+    }
+    
+    // Next byte without consuming it, or -1 at end of input
+    int peek() throws IOException {
+        if (pos == limit && !fill(1)) return -1;
+        return buf[pos] & 0xFF;
+    }
+    
+    int next() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            pos++;
+            if (c == '\n') line++;
+        }
+        return c;
+    }
+    
+    // Skip spaces and tabs
+    void skipBlanks() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\t') {
+            pos++;
+        }
+    }
+    
+    // Consume a line break (\n, \r\n or \r); returns false if not at one
+    boolean skipNewline() throws IOException {
+        int c = peek();
+        if (c == '\n') {
+            next();
+            return true;
+        }
+        if (c == '\r') {
+            pos++;
+            if (peek() == '\n') pos++;
+            line++;
+            return true;
+        }
+        return false;
+    }
+    
+    boolean atLineEnd() throws IOException {
+        int c = peek();
+        return c == '\n' || c == '\r' || c == -1;
+    }
+    
+    // Skip the rest of the current line including its terminator
+    void skipLine() throws IOException {
+        while (!atLineEnd()) {
+            pos++;
+        }
+        skipNewline();
+    }
+    
+    // Rest of the current line as ASCII text (for short header lines only)
+    String readLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (!atLineEnd()) {
+            sb.append((char) buf[pos++]);
+        }
+        skipNewline();
+        return sb.toString();
+    }
+    
+    long parseLong() throws IOException {
+        skipBlanks();
+        fill(MAX_TOKEN);
+        int p = pos;
+        boolean negative = p < limit && buf[p] == '-';
+        if (p < limit && (buf[p] == '-' || buf[p] == '+')) p++;
+        int start = p;
+        long value = 0;
+        while (p < limit && buf[p] >= '0' && buf[p] <= '9') {
+            value = value * 10 + (buf[p++] - '0');
+        }
+        if (p == start || p - start > 18) {
+            throw error("Expected an integer");
+        }
+        pos = p;
+        return negative ? -value : value;
+    }
+    
+    double parseDouble() throws IOException {
+        skipBlanks();
+        fill(MAX_TOKEN);
+        int p = pos;
+        boolean negative = false;
+        if (p < limit && (buf[p] == '-' || buf[p] == '+')) {
+            negative = buf[p] == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;      // significant digits kept in the mantissa
+        int scale = 0;       // decimal exponent adjustment
+        boolean any = false;
+        boolean exact = true;
+        while (p < limit && buf[p] >= '0' && buf[p] <= '9') {
+            any = true;
+            if (digits < 19) {
+                mantissa = mantissa * 10 + (buf[p] - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                scale++;
+                exact = false;
+            }
+            p++;
+        }
+        if (p < limit && buf[p] == '.') {
+            p++;
+            while (p < limit && buf[p] >= '0' && buf[p] <= '9') {
+                any = true;
+                if (digits < 19) {
+                    mantissa = mantissa * 10 + (buf[p] - '0');
+                    if (mantissa != 0) digits++;
+                    scale--;
+                } else {
+                    exact = false;
+                }
+                p++;
+            }
+        }
+        if (!any) {
+            return slowDouble();
+        }
+        if (p < limit && (buf[p] == 'e' || buf[p] == 'E')) {
+            p++;
+            boolean negativeExp = false;
+            if (p < limit && (buf[p] == '-' || buf[p] == '+')) {
+                negativeExp = buf[p] == '-';
+                p++;
+            }
+            int start = p;
+            int exp = 0;
+            while (p < limit && buf[p] >= '0' && buf[p] <= '9') {
+                if (exp < 100000) exp = exp * 10 + (buf[p] - '0');
+                p++;
+            }
+            if (p == start) {
+                throw error("Malformed number");
+            }
+            scale += negativeExp ? -exp : exp;
+        }
+        if (p == limit && !eof) {
+            // Token longer than MAX_TOKEN
+            return slowDouble();
+        }
+        if (p < limit && isTokenChar(buf[p])) {
+            throw error("Malformed number");
+        }
+        if (exact && digits <= 15 && scale >= -22 && scale <= 22) {
+            pos = p;
+            double value = scale >= 0 ? mantissa * POW10[scale] : mantissa / POW10[-scale];
+            return negative ? -value : value;
+        }
+        double value = DecimalConversion.toDouble(mantissa, scale, negative);
+        // Digits beyond the 19th were dropped: the result stands only if rounding the
+        // kept mantissa up gives the same double
+        if (!exact && value == value && DecimalConversion.toDouble(mantissa + 1, scale, negative) != value) {
+            value = Double.NaN;
+        }
+        if (value != value) {
+            return slowDouble();
+        }
+        pos = p;
+        return value;
+    }
+    
+    // One token through Double.parseDouble
+    private double slowDouble() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = peek()) >= 0 && isTokenChar((byte) c)) {
+            sb.append((char) c);
+            pos++;
+        }
+        if (sb.length() == 0) {
+            throw error("Expected a number");
+        }
+        try {
+            return Double.parseDouble(sb.toString());
+        } catch (NumberFormatException e) {
+            throw error("Malformed number '" + sb + "'");
+        }
+    }
+    
+    private static boolean isTokenChar(byte b) {
+        return b > ' ' && b != ',' && b != ';' && b != '"';
+    }
+    
+    MatrixException error(String message) throws IOException {
+        int c = peek();
+        String found = c < 0 ? "end of input" : c == '\n' || c == '\r' ? "end of line"
+                     : "'" + new String(buf, pos, Math.min(16, limit - pos), StandardCharsets.ISO_8859_1).split("[\\s,]")[0] + "'";
+        return new MatrixException(message + " at line " + line + ", found " + found);
+    }
+    
+    // Make at least n bytes available when the input has them; false if none are left
+    private boolean fill(int n) throws IOException {
+        if (limit - pos >= n || eof) return pos < limit;
+        System.arraycopy(buf, pos, buf, 0, limit - pos);
+        limit -= pos;
+        pos = 0;
+        while (limit < n && !eof) {
+            int read = in.read(buf, limit, buf.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+                consumed += read;
+            }
+        }
+        listener.progress(consumed, total);
+        return pos < limit;
+    }
+}
\ No newline at end of file
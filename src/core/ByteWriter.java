@@ -0,0 +1,57 @@
+package core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Buffered ASCII output for the text matrix formats. Doubles are rendered through one
+// reused StringBuilder (StringBuilder.append(double) formats in place, giving the same
+// shortest round-trip digits as Double.toString) and copied out as bytes, so writing
+// a value allocates nothing.
+final class ByteWriter {
+    private static final int BUFFER = 1 << 20;
+    
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER];
+    private final StringBuilder number = new StringBuilder(32);
+    private int pos;
+    
+    ByteWriter(OutputStream out) {
+        this.out = out;
+    }
+    
+    void write(char c) throws IOException {
+        if (pos == buf.length) flush();
+        buf[pos++] = (byte) c;
+    }
+    
+    void write(String ascii) throws IOException {
+        for (int i = 0; i < ascii.length(); i++) {
+            write(ascii.charAt(i));
+        }
+    }
+    
+    void write(double value) throws IOException {
+        number.setLength(0);
+        number.append(value);
+        writeNumber();
+    }
+    
+    void write(long value) throws IOException {
+        number.setLength(0);
+        number.append(value);
+        writeNumber();
+    }
+    
+    private void writeNumber() throws IOException {
+        int len = number.length();
+        if (buf.length - pos < len) flush();
+        for (int i = 0; i < len; i++) {
+            buf[pos++] = (byte) number.charAt(i);
+        }
+    }
+    
+    void flush() throws IOException {
+        out.write(buf, 0, pos);
+        pos = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package core;
+
+import java.util.function.Supplier;
+
+// Cooperative cancellation for long-running operations. Run the operation through call()
+// and the kernels check the token at block boundaries (parallel row blocks, GEMM panels,
+// LU columns, power steps), throwing OperationCancelledException once cancel() is called
+// or the optional timeout has passed. The token follows the operation onto
+// ParallelExecutor's worker threads; with no token installed the checks do nothing.
+public final class CancellationToken {
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+    
+    private final long timeoutMillis;
+    private final long deadline;
+    private volatile boolean cancelled;
+    
+    public CancellationToken() {
+        this(0);
+    }
+    
+    // Token that also expires timeoutMillis after creation (0 for no timeout)
+    public CancellationToken(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new MatrixException("Timeout must not be negative");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+    }
+    
+    // Safe to call from any thread
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    public boolean isCancelled() {
+        return cancelled || isTimedOut();
+    }
+    
+    public boolean isTimedOut() {
+        return timeoutMillis > 0 && System.nanoTime() - deadline >= 0;
+    }
+    
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new OperationCancelledException("Operation cancelled");
+        }
+        if (isTimedOut()) {
+            throw new OperationCancelledException("Operation timed out after " + timeoutMillis / 1000.0 + " s");
+        }
+    }
+    
+    // Run body with this token installed for the calling thread
+    public <T> T call(Supplier<T> body) {
+        CancellationToken previous = enter(this);
+        try {
+            throwIfCancelled();
+            return body.get();
+        } finally {
+            exit(previous);
+        }
+    }
+    
+    // Token of the operation running on this thread, or null
+    public static CancellationToken current() {
+        return CURRENT.get();
+    }
+    
+    // Throws OperationCancelledException if the current operation has been cancelled
+    public static void check() {
+        CancellationToken token = CURRENT.get();
+        if (token != null) {
+            token.throwIfCancelled();
+        }
+    }
+    
+    // Install token (possibly null) on this thread; returns the one to restore with exit()
+    static CancellationToken enter(CancellationToken token) {
+        CancellationToken previous = CURRENT.get();
+        if (token != previous) {
+            CURRENT.set(token);
+        }
+        return previous;
+    }
+    
+    static void exit(CancellationToken previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
\ No newline at end of file
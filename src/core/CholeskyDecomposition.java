@@ -0,0 +1,235 @@
+package core;
+
+import java.util.Arrays;
+
+// Cholesky factorization A = L * L^T of a symmetric positive-definite matrix: half the
+// work of LUDecomposition and no pivoting. Only the lower triangle of A is read.
+// L is packed by block rows: block row I (rows i0 .. i1 - 1) is a dense row-major panel
+// of columns 0 .. i1 - 1, so the factor takes n (n + NB) / 2 doubles instead of n^2 and
+// every tile is updated from the earlier block columns with one GEMM. If a pivot is not
+// positive the factorization stops and isPositiveDefinite() is false.
+public class CholeskyDecomposition {
+    // Block size; the diagonal tiles waste NB / 2 doubles per row
+    private static final int NB = 128;
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    // Element (i, j), j <= i, of L is l[rowStart[i] + j]
+    private final double[] l;
+    private final int[] rowStart;
+    private final int n;
+    private final boolean positiveDefinite;
+    
+    public CholeskyDecomposition(Matrix A) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Matrix must be square for Cholesky decomposition");
+        }
+        n = A.getRows();
+        rowStart = new int[n];
+        int size = 0;
+        for (int i0 = 0; i0 < n; i0 += NB) {
+            int i1 = Math.min(n, i0 + NB);
+            for (int i = i0; i < i1; i++) {
+                rowStart[i] = size + (i - i0) * i1;
+            }
+            size += (i1 - i0) * i1;
+        }
+        l = new double[size];
+        double[] a = A.array();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a, A.getOffset() + i * A.getStride(), l, rowStart[i], i + 1);
+        }
+        positiveDefinite = factor();
+    }
+    
+    // Left-looking by block rows: each tile first subtracts the product of the finished
+    // block columns to its left (GEMM), then is solved against the diagonal tile above it
+    private boolean factor() {
+        for (int i0 = 0; i0 < n; i0 += NB) {
+            CancellationToken.check();
+            int i1 = Math.min(n, i0 + NB);
+            int ib = i1 - i0;
+            int panel = rowStart[i0];
+            
+            for (int j0 = 0; j0 < i0; j0 += NB) {
+                int j1 = j0 + NB;
+                // L[I, J] -= L[I, 0:j0] * L[J, 0:j0]^T
+                if (j0 > 0) {
+                    GemmKernel.gemm(ib, NB, j0, -1.0, l, panel, i1, 1, l, rowStart[j0], 1, j1,
+                                    l, panel + j0, i1, true);
+                }
+                // L[I, J] = L[I, J] * L[J, J]^-T
+                for (int i = i0; i < i1; i++) {
+                    int ri = rowStart[i];
+                    for (int j = j0; j < j1; j++) {
+                        int rj = rowStart[j];
+                        double s = l[ri + j] - KERNELS.dot(l, ri + j0, l, rj + j0, j - j0);
+                        l[ri + j] = s / l[rj + j];
+                    }
+                }
+            }
+            
+            // Diagonal tile: subtract the whole panel's contribution, then factor it in place
+            if (i0 > 0) {
+                GemmKernel.gemm(ib, ib, i0, -1.0, l, panel, i1, 1, l, panel, 1, i1,
+                                l, panel + i0, i1, true);
+            }
+            for (int i = i0; i < i1; i++) {
+                int ri = rowStart[i];
+                for (int j = i0; j <= i; j++) {
+                    int rj = rowStart[j];
+                    double s = l[ri + j] - KERNELS.dot(l, ri + i0, l, rj + i0, j - i0);
+                    if (j < i) {
+                        l[ri + j] = s / l[rj + j];
+                    } else if (s > 0.0 && s != Double.POSITIVE_INFINITY) {
+                        l[ri + i] = Math.sqrt(s);
+                    } else {
+                        return false;
+                    }
+                }
+                // The GEMM also filled the tile's upper part
+                Arrays.fill(l, ri + i + 1, ri + i1, 0.0);
+            }
+        }
+        return true;
+    }
+    
+    public int getSize() {
+        return n;
+    }
+    
+    public boolean isPositiveDefinite() {
+        return positiveDefinite;
+    }
+    
+    // The squared diagonal of L holds the pivots an unpivoted LU of A would find; like
+    // LUDecomposition, any below its tolerance makes A singular for solve / inverse
+    public boolean isSingular() {
+        checkPositiveDefinite();
+        for (int i = 0; i < n; i++) {
+            double d = l[rowStart[i] + i];
+            if (d * d < LUDecomposition.EPSILON) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Lower-triangular factor
+    public Matrix getL() {
+        checkPositiveDefinite();
+        Matrix L = new Matrix(n, n);
+        double[] x = L.getArray();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(l, rowStart[i], x, i * n, i + 1);
+        }
+        return L;
+    }
+    
+    public double determinant() {
+        checkPositiveDefinite();
+        double det = 1.0;
+        for (int i = 0; i < n; i++) {
+            double d = l[rowStart[i] + i];
+            det *= d * d;
+        }
+        return det;
+    }
+    
+    // Natural log of det(A) (always positive), safe from overflow/underflow
+    public double logDeterminant() {
+        checkPositiveDefinite();
+        double logDet = 0;
+        for (int i = 0; i < n; i++) {
+            logDet += Math.log(l[rowStart[i] + i]);
+        }
+        return 2.0 * logDet;
+    }
+    
+    // Solve A * X = B for every column of B at once: L * Y = B, then L^T * X = Y
+    public Matrix solve(Matrix B) {
+        if (B.getRows() != n) {
+            throw new MatrixException(
+                "Right-hand side must have " + n + " rows, got " + B.getRows()
+            );
+        }
+        if (isSingular()) {
+            throw new MatrixException("Matrix is singular, system has no unique solution");
+        }
+        
+        int m = B.getCols();
+        Matrix X = new Matrix(n, m);
+        double[] x = X.getArray();
+        double[] b = B.array();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(b, B.getOffset() + i * B.getStride(), x, i * m, m);
+        }
+        for (int i = 0; i < n; i++) {
+            CancellationToken.check();
+            int ri = rowStart[i];
+            for (int k = 0; k < i; k++) {
+                double v = l[ri + k];
+                if (v == 0.0) continue;
+                KERNELS.axpy(-v, x, k * m, x, i * m, m);
+            }
+            divideRow(x, i * m, m, l[ri + i]);
+        }
+        // L^T by columns of L^T, i.e. the rows of L, so the factor is read contiguously
+        for (int k = n - 1; k >= 0; k--) {
+            CancellationToken.check();
+            int rk = rowStart[k];
+            divideRow(x, k * m, m, l[rk + k]);
+            for (int i = 0; i < k; i++) {
+                double v = l[rk + i];
+                if (v == 0.0) continue;
+                KERNELS.axpy(-v, x, k * m, x, i * m, m);
+            }
+        }
+        return X;
+    }
+    
+    // A^-1 = L^-T * L^-1: invert L by forward substitution (row i of L^-1 only reaches
+    // column i), then multiply only the lower block triangle of the symmetric product
+    // and mirror it. About n^3 / 3 multiply-adds after the factorization.
+    public Matrix inverse() {
+        if (isSingular()) {
+            throw new MatrixException("Matrix is singular (determinant = 0), cannot compute inverse");
+        }
+        
+        double[] y = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            CancellationToken.check();
+            int ri = rowStart[i];
+            int yi = i * n;
+            for (int k = 0; k < i; k++) {
+                double v = l[ri + k];
+                if (v == 0.0) continue;
+                KERNELS.axpy(-v, y, k * n, y, yi, k + 1);
+            }
+            y[yi + i] += 1.0;
+            divideRow(y, yi, i + 1, l[ri + i]);
+        }
+        
+        // Row block I of Y^T * Y up to its diagonal block; rows of Y above i0 are zero there
+        Matrix inv = new Matrix(n, n);
+        double[] c = inv.getArray();
+        for (int i0 = 0; i0 < n; i0 += NB) {
+            int i1 = Math.min(n, i0 + NB);
+            GemmKernel.gemm(i1 - i0, i1, n - i0, y, i0 * n + i0, 1, n, y, i0 * n, n, 1,
+                            c, i0 * n, n, false);
+        }
+        StructuredKernels.mirrorLower(n, c, 0, n);
+        return inv;
+    }
+    
+    private void checkPositiveDefinite() {
+        if (!positiveDefinite) {
+            throw new MatrixException("Matrix is not positive definite");
+        }
+    }
+    
+    private static void divideRow(double[] x, int from, int len, double d) {
+        for (int j = from; j < from + len; j++) {
+            x[j] /= d;
+        }
+    }
+}
\ No newline at end of file
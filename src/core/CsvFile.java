@@ -0,0 +1,135 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Comma-separated matrix files: one row per line, values separated by commas (spaces,
+// tabs and double quotes around values are allowed, blank lines are skipped).
+// Reading streams bytes straight into one flat double[] that becomes the Matrix storage;
+// writing streams rows out without building the text in memory.
+public final class CsvFile {
+    private CsvFile() {}
+    
+    public static Matrix read(Path path) throws IOException {
+        return read(path, ProgressListener.NONE);
+    }
+    
+    public static Matrix read(Path path, ProgressListener listener) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in, Files.size(path), listener);
+        }
+    }
+    
+    // totalBytes is only used for progress reporting (pass -1 if unknown)
+    public static Matrix read(InputStream in, long totalBytes, ProgressListener listener) throws IOException {
+        ByteScanner scanner = new ByteScanner(in, totalBytes, listener);
+        double[] data = new double[1024];
+        int cols = -1;
+        int rows = 0;
+        int col = 0;
+        long count = 0;
+        while (true) {
+            scanner.skipBlanks();
+            int c = scanner.peek();
+            if (c == -1 || c == '\n' || c == '\r') {
+                if (col > 0) {
+                    // End of a row
+                    if (cols < 0) {
+                        cols = col;
+                        data = Arrays.copyOf(data, estimateCapacity(count, scanner.offset(), totalBytes));
+                    } else if (col != cols) {
+                        throw new MatrixException("Row " + (rows + 1) + " has " + col +
+                                                  " values, expected " + cols + " (line " + scanner.getLine() + ")");
+                    }
+                    rows++;
+                    col = 0;
+                }
+                if (c == -1) break;
+                scanner.skipNewline();
+                continue;
+            }
+            
+            boolean quoted = c == '"';
+            if (quoted) scanner.next();
+            double value = scanner.parseDouble();
+            if (quoted && scanner.next() != '"') {
+                throw scanner.error("Unterminated quoted value");
+            }
+            if (count == data.length) {
+                if (count >= Integer.MAX_VALUE - 8) {
+                    throw new MatrixException("CSV file holds too many values for one matrix");
+                }
+                data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, count + (count >> 1) + 1));
+            }
+            data[(int) count++] = value;
+            col++;
+            
+            scanner.skipBlanks();
+            c = scanner.peek();
+            if (c == ',') {
+                scanner.next();
+                scanner.skipBlanks();
+                if (scanner.atLineEnd()) {
+                    throw scanner.error("Missing value after ','");
+                }
+            } else if (c != -1 && c != '\n' && c != '\r') {
+                throw scanner.error("Expected ',' or end of line");
+            }
+        }
+        if (rows == 0) {
+            throw new MatrixException("CSV file contains no values");
+        }
+        if ((long) rows * cols > data.length) {
+            throw new MatrixException("CSV file holds too many values for one matrix");
+        }
+        // Keep an over-allocated array only when the slack is small
+        int size = rows * cols;
+        if (data.length - size > size / 8) {
+            data = Arrays.copyOf(data, size);
+        }
+        return new Matrix(rows, cols, data, 0, cols);
+    }
+    
+    // Size the array once the first row is read, extrapolating its bytes per value to the
+    // whole file (plus 5%), so a typical file is read without any regrowth
+    private static int estimateCapacity(long values, long bytes, long totalBytes) {
+        if (totalBytes <= 0 || bytes <= 0) {
+            return (int) Math.max(1024, values * 64);
+        }
+        double estimate = values * (double) totalBytes / bytes * 1.05 + values;
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(values, (long) estimate));
+    }
+    
+    public static void write(Matrix A, Path path) throws IOException {
+        write(A, path, ProgressListener.NONE);
+    }
+    
+    public static void write(Matrix A, Path path, ProgressListener listener) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(A, out, listener);
+        }
+    }
+    
+    public static void write(Matrix A, OutputStream out, ProgressListener listener) throws IOException {
+        ByteWriter writer = new ByteWriter(out);
+        double[] a = A.array();
+        int rows = A.getRows(), cols = A.getCols();
+        for (int i = 0; i < rows; i++) {
+            int ai = A.getOffset() + i * A.getStride();
+            for (int j = 0; j < cols; j++) {
+                if (j > 0) writer.write(',');
+                writer.write(a[ai + j]);
+            }
+            writer.write('\n');
+            if ((i & 1023) == 1023) {
+                listener.progress(i + 1, rows);
+            }
+        }
+        writer.flush();
+        listener.progress(rows, rows);
+    }
+}
\ No newline at end of file
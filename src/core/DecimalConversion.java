@@ -0,0 +1,99 @@
+package core;
+
+import java.math.BigInteger;
+
+// Correctly rounded decimal-to-double conversion of w * 10^q for a 64-bit mantissa w,
+// without going through a String (Eisel-Lemire, as in Lemire, "Number Parsing at a
+// Gigabyte per Second", 2021). The rare inputs the 128-bit approximation cannot decide
+// (and subnormal or out-of-range results) return NaN so the caller can fall back to
+// Double.parseDouble.
+final class DecimalConversion {
+    private static final int MIN_EXP10 = -342;
+    private static final int MAX_EXP10 = 308;
+    
+    // 128-bit normalized approximations of 5^q (top bit set): truncated for q >= 0,
+    // rounded up for q < 0. Built once with BigInteger instead of a literal table.
+    private static final long[] POW5_HI = new long[MAX_EXP10 - MIN_EXP10 + 1];
+    private static final long[] POW5_LO = new long[MAX_EXP10 - MIN_EXP10 + 1];
+    
+    static {
+        BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+        BigInteger mask = two128.subtract(BigInteger.ONE);
+        for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+            BigInteger c;
+            if (q >= 0) {
+                c = BigInteger.valueOf(5).pow(q);
+                int shift = 128 - c.bitLength();
+                c = shift >= 0 ? c.shiftLeft(shift) : c.shiftRight(-shift);
+            } else {
+                BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+                int z = power5.bitLength();
+                c = BigInteger.ONE.shiftLeft(z + 127).divide(power5).add(BigInteger.ONE);
+                if (c.bitLength() > 128) {
+                    c = c.shiftRight(c.bitLength() - 128);
+                }
+            }
+            POW5_HI[q - MIN_EXP10] = c.shiftRight(64).longValue();
+            POW5_LO[q - MIN_EXP10] = c.and(mask).longValue();
+        }
+    }
+    
+    private DecimalConversion() {}
+    
+    // w * 10^q rounded to nearest double, or NaN when undecided
+    static double toDouble(long w, int q, boolean negative) {
+        if (w == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (q < MIN_EXP10 || q > MAX_EXP10) {
+            return Double.NaN;
+        }
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+        long exp2 = ((217706L * q) >> 16) + 64 + 1023 - lz;
+        
+        int index = q - MIN_EXP10;
+        long hi = Math.multiplyHigh(w, POW5_HI[index]) + ((POW5_HI[index] >> 63) & w) + ((w >> 63) & POW5_HI[index]);
+        long lo = w * POW5_HI[index];
+        
+        // Not enough precision in the top 64 bits: bring in the lower half of the power
+        if ((hi & 0x1FF) == 0x1FF && Long.compareUnsigned(lo + w, w) < 0) {
+            long yHi = Math.multiplyHigh(w, POW5_LO[index]) + ((POW5_LO[index] >> 63) & w) + ((w >> 63) & POW5_LO[index]);
+            long yLo = w * POW5_LO[index];
+            long mergedHi = hi;
+            long mergedLo = lo + yHi;
+            if (Long.compareUnsigned(mergedLo, lo) < 0) {
+                mergedHi++;
+            }
+            if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + w, w) < 0) {
+                return Double.NaN;
+            }
+            hi = mergedHi;
+            lo = mergedLo;
+        }
+        
+        long msb = hi >>> 63;
+        long mantissa = hi >>> (msb + 9);
+        exp2 -= 1 ^ msb;
+        
+        // Exactly halfway between two doubles: let the slow path break the tie
+        if (lo == 0 && (hi & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            return Double.NaN;
+        }
+        
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if ((mantissa >>> 53) > 0) {
+            mantissa >>>= 1;
+            exp2++;
+        }
+        if (exp2 <= 0 || exp2 >= 0x7FF) {
+            return Double.NaN;
+        }
+        long bits = (exp2 << 52) | (mantissa & 0x000FFFFFFFFFFFFFL);
+        if (negative) {
+            bits |= Long.MIN_VALUE;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+}
\ No newline at end of file
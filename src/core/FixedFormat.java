@@ -0,0 +1,81 @@
+package core;
+
+import java.util.Locale;
+
+// Fixed-point number formatting that matches String.format(Locale.ROOT, "%<width>.<decimals>f")
+// character for character, without Formatter's parsing and per-call allocations.
+// Formatter rounds half-up on the shortest decimal form of the double; away from a tie
+// that equals rounding the binary value, which is computed here in long arithmetic.
+// Values within rounding noise of a tie, non-finite values and magnitudes of 1e15 and
+// above are passed to String.format.
+public final class FixedFormat {
+    private static final int MAX_DECIMALS = 9;
+    private static final long[] POW10 = new long[MAX_DECIMALS + 1];
+    
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+    
+    private FixedFormat() {}
+    
+    public static String format(double value, int decimals) {
+        return appendTo(new StringBuilder(24), value, 0, decimals).toString();
+    }
+    
+    // Append value right-aligned in at least width characters
+    public static StringBuilder appendTo(StringBuilder sb, double value, int width, int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new MatrixException("Decimals must be between 0 and " + MAX_DECIMALS);
+        }
+        double abs = Math.abs(value);
+        if (!(abs < 1e15)) {
+            return slowFormat(sb, value, width, decimals);
+        }
+        
+        // Integer and fraction parts are exact; only the scaled fraction carries rounding error
+        long intPart = (long) abs;
+        double scaled = (abs - intPart) * POW10[decimals];
+        long fracPart = (long) scaled;
+        double rest = scaled - fracPart;
+        double slack = (Math.ulp(abs) + 0x1p-52) * POW10[decimals];
+        if (Math.abs(rest - 0.5) <= slack) {
+            return slowFormat(sb, value, width, decimals);
+        }
+        if (rest > 0.5 && ++fracPart == POW10[decimals]) {
+            fracPart = 0;
+            intPart++;
+        }
+        
+        boolean negative = Double.doubleToRawLongBits(value) < 0;
+        int length = (negative ? 1 : 0) + digits(intPart) + (decimals > 0 ? decimals + 1 : 0);
+        for (int i = length; i < width; i++) {
+            sb.append(' ');
+        }
+        if (negative) sb.append('-');
+        sb.append(intPart);
+        if (decimals > 0) {
+            sb.append('.');
+            for (int i = digits(fracPart); i < decimals; i++) {
+                sb.append('0');
+            }
+            sb.append(fracPart);
+        }
+        return sb;
+    }
+    
+    private static int digits(long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+    
+    private static StringBuilder slowFormat(StringBuilder sb, double value, int width, int decimals) {
+        String pattern = "%" + (width > 0 ? String.valueOf(width) : "") + "." + decimals + "f";
+        return sb.append(String.format(Locale.ROOT, pattern, value));
+    }
+}
\ No newline at end of file
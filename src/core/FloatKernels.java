@@ -0,0 +1,269 @@
+package core;
+
+import java.util.Arrays;
+
+// Kernels for FloatMatrix. Element-wise work runs the float RowKernels row by row.
+// Multiply packs MC x KC blocks of A and KC x NC panels of B like GemmKernel and sums
+// each MC x NC block of C over the whole shared dimension in a scratch block before
+// storing it. With float accumulation the 4x8 float micro-kernel does the arithmetic
+// (twice the lanes of the double kernel); with double accumulation the panels are
+// widened to double while packing, the double micro-kernel runs, and every element
+// of C is rounded to float exactly once.
+final class FloatKernels {
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    // Micro-kernel tiles: 4 x 8 in float, 4 x 4 in double (GemmKernel.MR x NR)
+    private static final int MR = 4;
+    private static final int NR_FLOAT = 8;
+    private static final int NR_DOUBLE = GemmKernel.NR;
+    // Cache blocks; the scratch C block is MC x NC (256 KB in float, 512 KB in double)
+    private static final int MC = 128;
+    private static final int KC = 256;
+    private static final int NC = 512;
+    // Below this many multiply-adds packing costs more than it saves
+    private static final long SMALL_WORK = 32L * 32 * 32;
+    private static final int TRANSPOSE_TILE = 32;
+    
+    static final int ADD = 0, SUBTRACT = 1, SCALE = 2;
+    
+    private FloatKernels() {}
+    
+    // ADD / SUBTRACT: C = A op B;  SCALE: C = s * A
+    static void elementwise(int op, FloatMatrix A, FloatMatrix B, float s, FloatMatrix C) {
+        int cols = A.getCols();
+        float[] a = A.getArray(), c = C.getArray();
+        float[] b = B == null ? null : B.getArray();
+        ParallelExecutor.forRows(A.getRows(), cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = A.getOffset() + i * A.getStride();
+                int ci = C.getOffset() + i * C.getStride();
+                switch (op) {
+                    case ADD:
+                        KERNELS.add(a, ai, b, B.getOffset() + i * B.getStride(), c, ci, cols);
+                        break;
+                    case SUBTRACT:
+                        KERNELS.subtract(a, ai, b, B.getOffset() + i * B.getStride(), c, ci, cols);
+                        break;
+                    default:
+                        KERNELS.scale(a, ai, s, c, ci, cols);
+                        break;
+                }
+            }
+        });
+    }
+    
+    // C = A^T, copied in square tiles like MatrixOperations.transposeInto
+    static void transpose(FloatMatrix A, FloatMatrix C) {
+        int rows = A.getRows();
+        int cols = A.getCols();
+        float[] a = A.getArray(), c = C.getArray();
+        int cOff = C.getOffset(), cStride = C.getStride();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i0 = from; i0 < to; i0 += TRANSPOSE_TILE) {
+                int i1 = Math.min(i0 + TRANSPOSE_TILE, to);
+                for (int j0 = 0; j0 < cols; j0 += TRANSPOSE_TILE) {
+                    int j1 = Math.min(j0 + TRANSPOSE_TILE, cols);
+                    for (int i = i0; i < i1; i++) {
+                        int ai = A.getOffset() + i * A.getStride();
+                        for (int j = j0; j < j1; j++) {
+                            c[cOff + j * cStride + i] = a[ai + j];
+                        }
+                    }
+                }
+            }
+        });
+    }
+    
+    // C = A * B; row blocks of C are computed in parallel, each packing its own panels
+    static void multiply(FloatMatrix A, FloatMatrix B, FloatMatrix C, boolean doubleAccumulation) {
+        int m = A.getRows(), k = A.getCols(), n = B.getCols();
+        if ((long) m * n * k <= SMALL_WORK) {
+            smallMultiply(A, B, C, doubleAccumulation);
+            return;
+        }
+        int blocks = (m + MC - 1) / MC;
+        ParallelExecutor.forRows(blocks, (long) MC * n * k, (from, to) -> {
+            int rowFrom = from * MC;
+            int rowTo = Math.min(m, to * MC);
+            if (doubleAccumulation) {
+                multiplyDouble(A, B, C, rowFrom, rowTo);
+            } else {
+                multiplyFloat(A, B, C, rowFrom, rowTo);
+            }
+        });
+    }
+    
+    private static void multiplyFloat(FloatMatrix A, FloatMatrix B, FloatMatrix C, int rowFrom, int rowTo) {
+        int k = A.getCols(), n = B.getCols();
+        int blockK = Math.min(KC, k);
+        int blockN = Math.min(NC, roundUp(n, NR_FLOAT));
+        float[] packedA = new float[MC * blockK];
+        float[] packedB = new float[blockK * blockN];
+        float[] block = new float[MC * blockN];
+        float[] c = C.getArray();
+        
+        for (int jc = 0; jc < n; jc += blockN) {
+            int ncur = Math.min(blockN, n - jc);
+            for (int ic = rowFrom; ic < rowTo; ic += MC) {
+                // One cancellation check per block of C (at most MC * NC * k multiply-adds)
+                CancellationToken.check();
+                int mcur = Math.min(MC, rowTo - ic);
+                Arrays.fill(block, 0f);
+                for (int pc = 0; pc < k; pc += blockK) {
+                    int kcur = Math.min(blockK, k - pc);
+                    packA(mcur, kcur, A, ic, pc, packedA);
+                    packB(kcur, ncur, NR_FLOAT, B, pc, jc, packedB);
+                    // Padded slivers contribute zeros, so every tile runs the full kernel
+                    for (int jr = 0; jr < ncur; jr += NR_FLOAT) {
+                        for (int ir = 0; ir < mcur; ir += MR) {
+                            KERNELS.microKernel(kcur, packedA, ir * kcur, packedB, jr * kcur,
+                                                block, ir * blockN + jr, blockN);
+                        }
+                    }
+                }
+                for (int i = 0; i < mcur; i++) {
+                    System.arraycopy(block, i * blockN, c, C.getOffset() + (ic + i) * C.getStride() + jc, ncur);
+                }
+            }
+        }
+    }
+    
+    private static void multiplyDouble(FloatMatrix A, FloatMatrix B, FloatMatrix C, int rowFrom, int rowTo) {
+        int k = A.getCols(), n = B.getCols();
+        int blockK = Math.min(KC, k);
+        int blockN = Math.min(NC, roundUp(n, NR_DOUBLE));
+        double[] packedA = new double[MC * blockK];
+        double[] packedB = new double[blockK * blockN];
+        double[] block = new double[MC * blockN];
+        float[] c = C.getArray();
+        
+        for (int jc = 0; jc < n; jc += blockN) {
+            int ncur = Math.min(blockN, n - jc);
+            for (int ic = rowFrom; ic < rowTo; ic += MC) {
+                CancellationToken.check();
+                int mcur = Math.min(MC, rowTo - ic);
+                Arrays.fill(block, 0.0);
+                for (int pc = 0; pc < k; pc += blockK) {
+                    int kcur = Math.min(blockK, k - pc);
+                    packA(mcur, kcur, A, ic, pc, packedA);
+                    packB(kcur, ncur, B, pc, jc, packedB);
+                    for (int jr = 0; jr < ncur; jr += NR_DOUBLE) {
+                        for (int ir = 0; ir < mcur; ir += MR) {
+                            KERNELS.microKernel(kcur, packedA, ir * kcur, packedB, jr * kcur,
+                                                block, ir * blockN + jr, blockN);
+                        }
+                    }
+                }
+                for (int i = 0; i < mcur; i++) {
+                    int bi = i * blockN;
+                    int ci = C.getOffset() + (ic + i) * C.getStride() + jc;
+                    for (int j = 0; j < ncur; j++) {
+                        c[ci + j] = (float) block[bi + j];
+                    }
+                }
+            }
+        }
+    }
+    
+    // Pack rows [ic, ic + mcur) x columns [pc, pc + kcur) of A as MR-row slivers, zero padded
+    private static void packA(int mcur, int kcur, FloatMatrix A, int ic, int pc, float[] dst) {
+        float[] a = A.getArray();
+        int d = 0;
+        for (int ir = 0; ir < mcur; ir += MR) {
+            int mr = Math.min(MR, mcur - ir);
+            int src = A.getOffset() + (ic + ir) * A.getStride() + pc;
+            for (int p = 0; p < kcur; p++) {
+                int i = 0;
+                for (; i < mr; i++) {
+                    dst[d++] = a[src + i * A.getStride() + p];
+                }
+                for (; i < MR; i++) {
+                    dst[d++] = 0f;
+                }
+            }
+        }
+    }
+    
+    // Same, widened to double
+    private static void packA(int mcur, int kcur, FloatMatrix A, int ic, int pc, double[] dst) {
+        float[] a = A.getArray();
+        int d = 0;
+        for (int ir = 0; ir < mcur; ir += MR) {
+            int mr = Math.min(MR, mcur - ir);
+            int src = A.getOffset() + (ic + ir) * A.getStride() + pc;
+            for (int p = 0; p < kcur; p++) {
+                int i = 0;
+                for (; i < mr; i++) {
+                    dst[d++] = a[src + i * A.getStride() + p];
+                }
+                for (; i < MR; i++) {
+                    dst[d++] = 0.0;
+                }
+            }
+        }
+    }
+    
+    // Pack rows [pc, pc + kcur) x columns [jc, jc + ncur) of B as nr-column slivers, zero padded
+    private static void packB(int kcur, int ncur, int nr, FloatMatrix B, int pc, int jc, float[] dst) {
+        float[] b = B.getArray();
+        int d = 0;
+        for (int jr = 0; jr < ncur; jr += nr) {
+            int width = Math.min(nr, ncur - jr);
+            for (int p = 0; p < kcur; p++) {
+                int src = B.getOffset() + (pc + p) * B.getStride() + jc + jr;
+                System.arraycopy(b, src, dst, d, width);
+                Arrays.fill(dst, d + width, d + nr, 0f);
+                d += nr;
+            }
+        }
+    }
+    
+    // Same with NR_DOUBLE-column slivers, widened to double
+    private static void packB(int kcur, int ncur, FloatMatrix B, int pc, int jc, double[] dst) {
+        float[] b = B.getArray();
+        int d = 0;
+        for (int jr = 0; jr < ncur; jr += NR_DOUBLE) {
+            int width = Math.min(NR_DOUBLE, ncur - jr);
+            for (int p = 0; p < kcur; p++) {
+                int src = B.getOffset() + (pc + p) * B.getStride() + jc + jr;
+                int j = 0;
+                for (; j < width; j++) {
+                    dst[d++] = b[src + j];
+                }
+                for (; j < NR_DOUBLE; j++) {
+                    dst[d++] = 0.0;
+                }
+            }
+        }
+    }
+    
+    // Straight dot products for products too small to amortize packing
+    private static void smallMultiply(FloatMatrix A, FloatMatrix B, FloatMatrix C, boolean doubleAccumulation) {
+        int m = A.getRows(), k = A.getCols(), n = B.getCols();
+        float[] a = A.getArray(), b = B.getArray(), c = C.getArray();
+        for (int i = 0; i < m; i++) {
+            int ai = A.getOffset() + i * A.getStride();
+            int ci = C.getOffset() + i * C.getStride();
+            for (int j = 0; j < n; j++) {
+                int bj = B.getOffset() + j;
+                if (doubleAccumulation) {
+                    double sum = 0;
+                    for (int p = 0; p < k; p++) {
+                        sum += (double) a[ai + p] * b[bj + p * B.getStride()];
+                    }
+                    c[ci + j] = (float) sum;
+                } else {
+                    float sum = 0;
+                    for (int p = 0; p < k; p++) {
+                        sum += a[ai + p] * b[bj + p * B.getStride()];
+                    }
+                    c[ci + j] = sum;
+                }
+            }
+        }
+    }
+    
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+}
\ No newline at end of file
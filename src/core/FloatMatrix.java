@@ -0,0 +1,122 @@
+package core;
+
+// Dense row-major single-precision matrix: half the memory and bandwidth of Matrix for
+// work that can live with about 7 significant digits. Same layout as Matrix (element
+// (i, j) lives at data[offset + i * stride + j]); the kernels are the FloatMatrix
+// overloads in MatrixOperations. Convert explicitly with from(Matrix) and toMatrix().
+public final class FloatMatrix {
+    private final float[] data;
+    private final int offset;
+    private final int stride;
+    private final int rows;
+    private final int cols;
+    
+    public FloatMatrix(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new MatrixException("Matrix dimensions must be positive");
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new MatrixException("Matrix is too large: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = new float[rows * cols];
+        this.offset = 0;
+        this.stride = cols;
+    }
+    
+    // Wrap existing storage without copying
+    public FloatMatrix(int rows, int cols, float[] data, int offset, int stride) {
+        if (rows <= 0 || cols <= 0) {
+            throw new MatrixException("Matrix dimensions must be positive");
+        }
+        if (data == null || offset < 0 || stride < cols ||
+            offset + (long) (rows - 1) * stride + cols > data.length) {
+            throw new MatrixException("Storage does not fit a " + rows + "x" + cols + " matrix");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+        this.offset = offset;
+        this.stride = stride;
+    }
+    
+    // Wrap a dense row-major array without copying
+    public static FloatMatrix wrap(int rows, int cols, float[] data) {
+        return new FloatMatrix(rows, cols, data, 0, cols);
+    }
+    
+    // Round every element to the nearest float; magnitudes beyond Float.MAX_VALUE become
+    // infinite and those below Float.MIN_VALUE become zero
+    public static FloatMatrix from(Matrix A) {
+        int rows = A.getRows(), cols = A.getCols();
+        FloatMatrix result = new FloatMatrix(rows, cols);
+        double[] a = A.array();
+        float[] c = result.data;
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = A.getOffset() + i * A.getStride();
+                int ci = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    c[ci + j] = (float) a[ai + j];
+                }
+            }
+        });
+        return result;
+    }
+    
+    // Exact widening copy into a new double-precision matrix
+    public Matrix toMatrix() {
+        Matrix result = new Matrix(rows, cols);
+        double[] c = result.getArray();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = offset + i * stride;
+                int ci = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    c[ci + j] = data[ai + j];
+                }
+            }
+        });
+        return result;
+    }
+    
+    // Getters
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public float get(int row, int col) { return data[offset + row * stride + col]; }
+    public void set(int row, int col, float value) { data[offset + row * stride + col] = value; }
+    
+    // Direct access to the backing storage for bulk kernels
+    public float[] getArray() { return data; }
+    public int getOffset() { return offset; }
+    public int getStride() { return stride; }
+    
+    // True when the rows are packed back to back with no gaps
+    public boolean isContiguous() { return stride == cols; }
+    
+    // Copy matrix (always contiguous)
+    public FloatMatrix copy() {
+        FloatMatrix result = new FloatMatrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data, offset + i * stride, result.data, i * cols, cols);
+        }
+        return result;
+    }
+    
+    // Same layout as Matrix.toString ("%10.4f" cells)
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, (long) rows * (cols * 12L + 3)));
+        for (int i = 0; i < rows; i++) {
+            sb.append("[");
+            int row = offset + i * stride;
+            for (int j = 0; j < cols; j++) {
+                FixedFormat.appendTo(sb, data[row + j], 10, 4);
+                if (j < cols - 1) sb.append(", ");
+            }
+            sb.append("]\n");
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
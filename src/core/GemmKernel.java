@@ -0,0 +1,255 @@
+package core;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+// Cache-blocked matrix multiply: C = A * B (or C += A * B).
+// Panels of A and B are packed into contiguous buffers sized for the caches
+// (MC x KC block of A for L2, KC x NC panel of B for L3) and a 4x4 register-tiled
+// micro-kernel runs over the packed data. Operands are addressed by row and
+// column stride so any strided view (including a transposed one) can be packed.
+public final class GemmKernel {
+    // Micro-kernel tile (fixed: RowKernels.microKernel is written for 4x4)
+    static final int MR = 4;
+    static final int NR = 4;
+    
+    // Below this many multiply-adds packing costs more than it saves
+    private static final long SMALL_WORK = 32L * 32 * 32;
+    
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    private static volatile int mc = Integer.getInteger("matrix.gemm.mc", 128);
+    private static volatile int kc = Integer.getInteger("matrix.gemm.kc", 256);
+    private static volatile int nc = Integer.getInteger("matrix.gemm.nc", 4096);
+    
+    private GemmKernel() {}
+    
+    // Configure the cache block sizes (MC rows of A, KC shared dimension, NC columns of B)
+    public static void setBlockSizes(int mcRows, int kcDepth, int ncCols) {
+        if (mcRows <= 0 || kcDepth <= 0 || ncCols <= 0) {
+            throw new MatrixException("Block sizes must be positive");
+        }
+        mc = roundUp(mcRows, MR);
+        kc = kcDepth;
+        nc = roundUp(ncCols, NR);
+    }
+    
+    public static int getBlockRows() { return mc; }
+    public static int getBlockDepth() { return kc; }
+    public static int getBlockCols() { return nc; }
+    
+    // C[m x n] (=|+=) A[m x k] * B[k x n], split into parallel 2D tiles of C when large
+    static void gemm(int m, int n, int k,
+                     double[] a, int aOff, int aRowStride, int aColStride,
+                     double[] b, int bOff, int bRowStride, int bColStride,
+                     double[] c, int cOff, int cStride, boolean accumulate) {
+        gemm(m, n, k, 1.0, a, aOff, aRowStride, aColStride, b, bOff, bRowStride, bColStride,
+             c, cOff, cStride, accumulate);
+    }
+    
+    // C (=|+=) alpha * A * B; alpha is applied while packing A, so scaling is free
+    static void gemm(int m, int n, int k, double alpha,
+                     double[] a, int aOff, int aRowStride, int aColStride,
+                     double[] b, int bOff, int bRowStride, int bColStride,
+                     double[] c, int cOff, int cStride, boolean accumulate) {
+        long work = (long) m * n * k;
+        if (!ParallelExecutor.shouldSplit(work)) {
+            serialGemm(m, n, k, alpha, a, aOff, aRowStride, aColStride,
+                       b, bOff, bRowStride, bColStride, c, cOff, cStride, accumulate);
+            return;
+        }
+        // Several tiles per worker so the pool can balance edge tiles
+        long grain = Math.max(ParallelExecutor.getThreshold(),
+                              work / (ParallelExecutor.getParallelism() * 4L));
+        ParallelExecutor.invoke(new GemmTask(m, n, k, alpha, a, aOff, aRowStride, aColStride,
+                                             b, bOff, bRowStride, bColStride,
+                                             c, cOff, cStride, accumulate, grain, CancellationToken.current()));
+    }
+    
+    // Single-threaded blocked kernel
+    static void serialGemm(int m, int n, int k, double alpha,
+                           double[] a, int aOff, int aRowStride, int aColStride,
+                           double[] b, int bOff, int bRowStride, int bColStride,
+                           double[] c, int cOff, int cStride, boolean accumulate) {
+        if (m == 0 || n == 0) return;
+        if (!accumulate) {
+            for (int i = 0; i < m; i++) {
+                int ci = cOff + i * cStride;
+                Arrays.fill(c, ci, ci + n, 0.0);
+            }
+        }
+        if (k == 0) return;
+        
+        if ((long) m * n * k <= SMALL_WORK) {
+            smallGemm(m, n, k, alpha, a, aOff, aRowStride, aColStride,
+                      b, bOff, bRowStride, bColStride, c, cOff, cStride);
+            return;
+        }
+        
+        int blockM = Math.min(mc, roundUp(m, MR));
+        int blockK = Math.min(kc, k);
+        int blockN = Math.min(nc, roundUp(n, NR));
+        double[] packedA = new double[blockM * blockK];
+        double[] packedB = new double[blockK * blockN];
+        double[] tile = new double[MR * NR];
+        
+        for (int jc = 0; jc < n; jc += blockN) {
+            int ncur = Math.min(blockN, n - jc);
+            for (int pc = 0; pc < k; pc += blockK) {
+                int kcur = Math.min(blockK, k - pc);
+                packB(kcur, ncur, b, bOff + pc * bRowStride + jc * bColStride,
+                      bRowStride, bColStride, packedB);
+                
+                for (int ic = 0; ic < m; ic += blockM) {
+                    // One cancellation check per packed panel (at most mc * kc * nc multiply-adds)
+                    CancellationToken.check();
+                    int mcur = Math.min(blockM, m - ic);
+                    packA(mcur, kcur, a, aOff + ic * aRowStride + pc * aColStride,
+                          aRowStride, aColStride, alpha, packedA);
+                    
+                    for (int jr = 0; jr < ncur; jr += NR) {
+                        int nr = Math.min(NR, ncur - jr);
+                        int bp = jr * kcur;
+                        for (int ir = 0; ir < mcur; ir += MR) {
+                            int mr = Math.min(MR, mcur - ir);
+                            int cp = cOff + (ic + ir) * cStride + jc + jr;
+                            if (mr == MR && nr == NR) {
+                                KERNELS.microKernel(kcur, packedA, ir * kcur, packedB, bp, c, cp, cStride);
+                            } else {
+                                // Edge tile: run the full kernel on a scratch tile, then add the valid part
+                                Arrays.fill(tile, 0.0);
+                                KERNELS.microKernel(kcur, packedA, ir * kcur, packedB, bp, tile, 0, NR);
+                                for (int i = 0; i < mr; i++) {
+                                    for (int j = 0; j < nr; j++) {
+                                        c[cp + i * cStride + j] += tile[i * NR + j];
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    // Pack an mcur x kcur block of alpha * A as MR-row slivers, column by column, zero padded
+    private static void packA(int mcur, int kcur, double[] a, int off, int rs, int cs,
+                              double alpha, double[] dst) {
+        int d = 0;
+        for (int ir = 0; ir < mcur; ir += MR) {
+            int mr = Math.min(MR, mcur - ir);
+            for (int p = 0; p < kcur; p++) {
+                int src = off + ir * rs + p * cs;
+                int i = 0;
+                if (alpha == 1.0) {
+                    for (; i < mr; i++) {
+                        dst[d++] = a[src + i * rs];
+                    }
+                } else {
+                    for (; i < mr; i++) {
+                        dst[d++] = alpha * a[src + i * rs];
+                    }
+                }
+                for (; i < MR; i++) {
+                    dst[d++] = 0.0;
+                }
+            }
+        }
+    }
+    
+    // Pack a kcur x ncur panel of B as NR-column slivers, row by row, zero padded
+    private static void packB(int kcur, int ncur, double[] b, int off, int rs, int cs, double[] dst) {
+        int d = 0;
+        for (int jr = 0; jr < ncur; jr += NR) {
+            int nr = Math.min(NR, ncur - jr);
+            for (int p = 0; p < kcur; p++) {
+                int src = off + p * rs + jr * cs;
+                int j = 0;
+                for (; j < nr; j++) {
+                    dst[d++] = b[src + j * cs];
+                }
+                for (; j < NR; j++) {
+                    dst[d++] = 0.0;
+                }
+            }
+        }
+    }
+    
+    // Straight i-k-j loop for products too small to amortize packing
+    private static void smallGemm(int m, int n, int k, double alpha,
+                                  double[] a, int aOff, int aRs, int aCs,
+                                  double[] b, int bOff, int bRs, int bCs,
+                                  double[] c, int cOff, int cStride) {
+        for (int i = 0; i < m; i++) {
+            int ci = cOff + i * cStride;
+            for (int p = 0; p < k; p++) {
+                double aip = alpha * a[aOff + i * aRs + p * aCs];
+                int bp = bOff + p * bRs;
+                if (bCs == 1) {
+                    KERNELS.axpy(aip, b, bp, c, ci, n);
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    c[ci + j] += aip * b[bp + j * bCs];
+                }
+            }
+        }
+    }
+    
+    // Recursively halves the larger side of C until a tile is under the grain
+    private static final class GemmTask extends RecursiveAction {
+        private final int m, n, k;
+        private final double alpha;
+        private final double[] a, b, c;
+        private final int aOff, aRs, aCs, bOff, bRs, bCs, cOff, cStride;
+        private final boolean accumulate;
+        private final long grain;
+        private final CancellationToken token;
+        
+        GemmTask(int m, int n, int k, double alpha,
+                 double[] a, int aOff, int aRs, int aCs,
+                 double[] b, int bOff, int bRs, int bCs,
+                 double[] c, int cOff, int cStride, boolean accumulate, long grain,
+                 CancellationToken token) {
+            this.m = m; this.n = n; this.k = k; this.alpha = alpha;
+            this.a = a; this.aOff = aOff; this.aRs = aRs; this.aCs = aCs;
+            this.b = b; this.bOff = bOff; this.bRs = bRs; this.bCs = bCs;
+            this.c = c; this.cOff = cOff; this.cStride = cStride;
+            this.accumulate = accumulate;
+            this.grain = grain;
+            this.token = token;
+        }
+        
+        @Override
+        protected void compute() {
+            if ((long) m * n * k <= grain || (m <= MR && n <= NR)) {
+                CancellationToken previous = CancellationToken.enter(token);
+                try {
+                    serialGemm(m, n, k, alpha, a, aOff, aRs, aCs, b, bOff, bRs, bCs, c, cOff, cStride, accumulate);
+                } finally {
+                    CancellationToken.exit(previous);
+                }
+                return;
+            }
+            if (m >= n) {
+                // Split rows of A and C, keeping the upper half a multiple of MR
+                int top = Math.max(MR, roundUp(m / 2, MR));
+                invokeAll(new GemmTask(top, n, k, alpha, a, aOff, aRs, aCs, b, bOff, bRs, bCs,
+                                       c, cOff, cStride, accumulate, grain, token),
+                          new GemmTask(m - top, n, k, alpha, a, aOff + top * aRs, aRs, aCs, b, bOff, bRs, bCs,
+                                       c, cOff + top * cStride, cStride, accumulate, grain, token));
+            } else {
+                // Split columns of B and C
+                int left = Math.max(NR, roundUp(n / 2, NR));
+                invokeAll(new GemmTask(m, left, k, alpha, a, aOff, aRs, aCs, b, bOff, bRs, bCs,
+                                       c, cOff, cStride, accumulate, grain, token),
+                          new GemmTask(m, n - left, k, alpha, a, aOff, aRs, aCs, b, bOff + left * bCs, bRs, bCs,
+                                       c, cOff + left, cStride, accumulate, grain, token));
+            }
+        }
+    }
+    
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+}
\ No newline at end of file
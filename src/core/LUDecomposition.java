@@ -0,0 +1,214 @@
+package core;
+
+// LU factorization with partial pivoting: P * A = L * U.
+// Factor once, then answer determinant / solve / inverse / rank from the stored factors.
+public class LUDecomposition {
+    static final double EPSILON = 1e-10;
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    // L (unit diagonal, below) and U (on and above the diagonal), n x n row-major
+    private final double[] lu;
+    // Row i of P * A is row pivot[i] of A
+    private final int[] pivot;
+    private final int n;
+    private final double pivotSign;
+    
+    public LUDecomposition(Matrix A) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Matrix must be square for LU decomposition");
+        }
+        n = A.getRows();
+        lu = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(A.array(), A.getOffset() + i * A.getStride(), lu, i * n, n);
+        }
+        pivot = new int[n];
+        for (int i = 0; i < n; i++) {
+            pivot[i] = i;
+        }
+        pivotSign = factor();
+    }
+    
+    // In-place elimination; a zero pivot column is skipped, leaving a zero on U's diagonal
+    private double factor() {
+        double sign = 1.0;
+        for (int k = 0; k < n; k++) {
+            CancellationToken.check();
+            
+            // Find pivot
+            int p = k;
+            double max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double v = Math.abs(lu[i * n + k]);
+                if (v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+            if (max == 0.0) continue;
+            
+            // Swap rows
+            int rk = k * n;
+            if (p != k) {
+                int rp = p * n;
+                for (int j = 0; j < n; j++) {
+                    double temp = lu[rk + j];
+                    lu[rk + j] = lu[rp + j];
+                    lu[rp + j] = temp;
+                }
+                int t = pivot[k];
+                pivot[k] = pivot[p];
+                pivot[p] = t;
+                sign = -sign;
+            }
+            
+            // Eliminate below the pivot
+            double pivotValue = lu[rk + k];
+            for (int i = k + 1; i < n; i++) {
+                int ri = i * n;
+                double factor = lu[ri + k] / pivotValue;
+                lu[ri + k] = factor;
+                if (factor == 0.0) continue;
+                KERNELS.axpy(-factor, lu, rk + k + 1, lu, ri + k + 1, n - k - 1);
+            }
+        }
+        return sign;
+    }
+    
+    public int getSize() {
+        return n;
+    }
+    
+    // Row permutation applied to A (copy)
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+    
+    // Unit lower-triangular factor
+    public Matrix getL() {
+        Matrix L = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                L.set(i, j, lu[i * n + j]);
+            }
+            L.set(i, i, 1.0);
+        }
+        return L;
+    }
+    
+    // Upper-triangular factor
+    public Matrix getU() {
+        Matrix U = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                U.set(i, j, lu[i * n + j]);
+            }
+        }
+        return U;
+    }
+    
+    public double determinant() {
+        double det = pivotSign;
+        for (int i = 0; i < n; i++) {
+            det *= lu[i * n + i];
+        }
+        return det;
+    }
+    
+    // Natural log of |det(A)|, safe from overflow/underflow on large matrices
+    public double logDeterminant() {
+        double logDet = 0;
+        for (int i = 0; i < n; i++) {
+            logDet += Math.log(Math.abs(lu[i * n + i]));
+        }
+        return logDet;
+    }
+    
+    // Sign of det(A): -1, 0 or 1
+    public int determinantSign() {
+        double sign = pivotSign;
+        for (int i = 0; i < n; i++) {
+            sign *= Math.signum(lu[i * n + i]);
+        }
+        return (int) sign;
+    }
+    
+    // Number of pivots above the singularity tolerance (an estimate under partial pivoting)
+    public int rank() {
+        int rank = 0;
+        for (int i = 0; i < n; i++) {
+            if (Math.abs(lu[i * n + i]) >= EPSILON) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+    
+    public boolean isSingular() {
+        return rank() < n;
+    }
+    
+    // Solve A * X = B for every column of B at once
+    public Matrix solve(Matrix B) {
+        if (B.getRows() != n) {
+            throw new MatrixException(
+                "Right-hand side must have " + n + " rows, got " + B.getRows()
+            );
+        }
+        if (isSingular()) {
+            throw new MatrixException("Matrix is singular, system has no unique solution");
+        }
+        
+        int m = B.getCols();
+        Matrix X = new Matrix(n, m);
+        double[] x = X.getArray();
+        double[] b = B.array();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(b, B.getOffset() + pivot[i] * B.getStride(), x, i * m, m);
+        }
+        substitute(x, m);
+        return X;
+    }
+    
+    public Matrix inverse() {
+        if (isSingular()) {
+            throw new MatrixException("Matrix is singular (determinant = 0), cannot compute inverse");
+        }
+        
+        // Columns of P * I, then the same substitution as solve
+        Matrix inv = new Matrix(n, n);
+        double[] x = inv.getArray();
+        for (int i = 0; i < n; i++) {
+            x[i * n + pivot[i]] = 1.0;
+        }
+        substitute(x, n);
+        return inv;
+    }
+    
+    // Forward (L) then back (U) substitution on an n x m row-major block, row-oriented
+    // so the inner loop runs across all right-hand sides at once
+    private void substitute(double[] x, int m) {
+        for (int i = 1; i < n; i++) {
+            CancellationToken.check();
+            int ri = i * m;
+            for (int k = 0; k < i; k++) {
+                double l = lu[i * n + k];
+                if (l == 0.0) continue;
+                KERNELS.axpy(-l, x, k * m, x, ri, m);
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            CancellationToken.check();
+            int ri = i * m;
+            for (int k = i + 1; k < n; k++) {
+                double u = lu[i * n + k];
+                if (u == 0.0) continue;
+                KERNELS.axpy(-u, x, k * m, x, ri, m);
+            }
+            double d = lu[i * n + i];
+            for (int j = 0; j < m; j++) {
+                x[ri + j] /= d;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -1,20 +1,39 @@
 package core;
 
 //import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
 import java.util.Random;
 
 public class Matrix {
-    private double[][] data;
-    private int rows;
-    private int cols;
+    // Row-major storage: element (i, j) lives at data[offset + i * stride + j]
+    private final double[] data;
+    private final int offset;
+    private final int stride;
+    private final int rows;
+    private final int cols;
+    // Content fingerprint, kept current by set(); unknown until first computed and again
+    // after getArray() hands out the storage for writes it cannot see
+    private long fingerprint;
+    private boolean fingerprintKnown;
+    // Zero pattern and symmetry, found on first use and dropped on every write
+    private MatrixStructure structure;
     
     public Matrix(int rows, int cols) {
         if (rows <= 0 || cols <= 0) {
             throw new MatrixException("Matrix dimensions must be positive");
         }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new MatrixException("Matrix is too large: " + rows + "x" + cols);
+        }
         this.rows = rows;
         this.cols = cols;
-        this.data = new double[rows][cols];
+        this.data = new double[rows * cols];
+        this.offset = 0;
+        this.stride = cols;
+        // All +0.0, whose cells add nothing to the fingerprint
+        this.fingerprintKnown = true;
     }
     
     public Matrix(double[][] data) {
@@ -23,22 +42,94 @@ public class Matrix {
         }
         this.rows = data.length;
         this.cols = data[0].length;
-        this.data = new double[rows][cols];
+        if (cols == 0) {
+            throw new MatrixException("Matrix dimensions must be positive");
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new MatrixException("Matrix is too large: " + rows + "x" + cols);
+        }
+        this.data = new double[rows * cols];
+        this.offset = 0;
+        this.stride = cols;
         
         for (int i = 0; i < rows; i++) {
             if (data[i].length != cols) {
                 throw new MatrixException("All rows must have the same number of columns");
             }
-            System.arraycopy(data[i], 0, this.data[i], 0, cols);
+            System.arraycopy(data[i], 0, this.data, i * cols, cols);
         }
     }
     
+    // Wrap existing storage without copying
+    public Matrix(int rows, int cols, double[] data, int offset, int stride) {
+        if (rows <= 0 || cols <= 0) {
+            throw new MatrixException("Matrix dimensions must be positive");
+        }
+        if (data == null || offset < 0 || stride < cols ||
+            offset + (long) (rows - 1) * stride + cols > data.length) {
+            throw new MatrixException("Storage does not fit a " + rows + "x" + cols + " matrix");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+        this.offset = offset;
+        this.stride = stride;
+    }
+    
+    // Wrap a dense row-major array without copying
+    public static Matrix wrap(int rows, int cols, double[] data) {
+        return new Matrix(rows, cols, data, 0, cols);
+    }
+    
     // Getters
     public int getRows() { return rows; }
     public int getCols() { return cols; }
-    public double[][] getData() { return data; }
-    public double get(int row, int col) { return data[row][col]; }
-    public void set(int row, int col, double value) { data[row][col] = value; }
+    
+    // Both indices are checked: with a flat index an out-of-range column would otherwise
+    // reach into the next row (or a neighbouring view of the same array)
+    public double get(int row, int col) {
+        Objects.checkIndex(row, rows);
+        Objects.checkIndex(col, cols);
+        return data[offset + row * stride + col];
+    }
+    
+    public void set(int row, int col, double value) {
+        Objects.checkIndex(row, rows);
+        Objects.checkIndex(col, cols);
+        int index = offset + row * stride + col;
+        if (fingerprintKnown) {
+            int cell = row * cols + col;
+            fingerprint += cellHash(cell, value) - cellHash(cell, data[index]);
+        }
+        structure = null;
+        data[index] = value;
+    }
+    
+    // Direct access to the backing storage for bulk kernels. Writes through the array are
+    // not tracked, so the fingerprint and structure are recomputed the next time they are
+    // asked for.
+    public double[] getArray() {
+        fingerprintKnown = false;
+        structure = null;
+        return data;
+    }
+    
+    // The backing storage for kernels in this package that only read it
+    double[] array() { return data; }
+    public int getOffset() { return offset; }
+    public int getStride() { return stride; }
+    
+    // True when the rows are packed back to back with no gaps
+    public boolean isContiguous() { return stride == cols; }
+    
+    // Copy of the elements as a 2D array (for the Swing panels)
+    public double[][] getData() {
+        double[][] copy = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data, offset + i * stride, copy[i], 0, cols);
+        }
+        return copy;
+    }
     
     // Create identity matrix
     public static Matrix identity(int size) {
@@ -58,27 +149,88 @@ public class Matrix {
     public static Matrix random(int rows, int cols, double min, double max) {
         Matrix result = new Matrix(rows, cols);
         Random rand = new Random();
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result.set(i, j, min + (max - min) * rand.nextDouble());
-            }
+        double[] d = result.data;
+        for (int i = 0; i < d.length; i++) {
+            d[i] = min + (max - min) * rand.nextDouble();
         }
+        result.fingerprintKnown = false;
         return result;
     }
     
-    // Copy matrix
+    // Read a binary .mtxb file (see MatrixFile for the format)
+    public static Matrix load(Path path) throws IOException {
+        return MatrixFile.load(path);
+    }
+    
+    // Write this matrix as a binary .mtxb file
+    public void save(Path path) throws IOException {
+        MatrixFile.save(this, path);
+    }
+    
+    // Copy matrix (always contiguous)
     public Matrix copy() {
-        return new Matrix(this.data);
+        Matrix result = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data, offset + i * stride, result.data, i * cols, cols);
+        }
+        result.fingerprint = fingerprint;
+        result.fingerprintKnown = fingerprintKnown;
+        result.structure = structure;
+        return result;
     }
     
-    // Matrix to string
+    // Diagonal / triangular / banded / symmetric, used by MatrixOperations to pick kernels.
+    // Cached until the next set() or getArray(); writes made through another Matrix sharing
+    // this storage are not seen.
+    public MatrixStructure getStructure() {
+        MatrixStructure s = structure;
+        if (s == null) {
+            s = MatrixStructure.of(this);
+            structure = s;
+        }
+        return s;
+    }
+    
+    // 64-bit hash of the exact contents (bit patterns by position, independent of the
+    // storage layout) for content-addressed caching; see ResultCache. Maintained by set()
+    // and recomputed in one pass only after getArray(). Writes made through another
+    // Matrix sharing this storage are not seen.
+    public long fingerprint() {
+        if (!fingerprintKnown) {
+            long h = 0;
+            for (int i = 0; i < rows; i++) {
+                int row = offset + i * stride;
+                int cell = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    h += cellHash(cell + j, data[row + j]);
+                }
+            }
+            fingerprint = h;
+            fingerprintKnown = true;
+        }
+        return fingerprint;
+    }
+    
+    // One cell's term of the fingerprint sum (SplitMix64 finalizer over value and position);
+    // +0.0 contributes nothing, so a new zero matrix starts at 0
+    private static long cellHash(int cell, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        if (bits == 0) return 0;
+        long h = bits ^ (cell * 0x9E3779B97F4A7C15L);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+    
+    // Matrix to string ("%10.4f" cells, formatted with FixedFormat)
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, (long) rows * (cols * 12L + 3)));
         for (int i = 0; i < rows; i++) {
             sb.append("[");
+            int row = offset + i * stride;
             for (int j = 0; j < cols; j++) {
-                sb.append(String.format("%10.4f", data[i][j]));
+                FixedFormat.appendTo(sb, data[row + j], 10, 4);
                 if (j < cols - 1) sb.append(", ");
             }
             sb.append("]\n");
@@ -91,12 +243,13 @@ public class Matrix {
         return rows == cols;
     }
     
-    // Check if matrix is symmetric
+    // Check if matrix is symmetric (within 1e-10)
     public boolean isSymmetric() {
         if (!isSquare()) return false;
+        if (structure != null && structure.isSymmetric()) return true;
         for (int i = 0; i < rows; i++) {
             for (int j = i + 1; j < cols; j++) {
-                if (Math.abs(data[i][j] - data[j][i]) > 1e-10) {
+                if (Math.abs(get(i, j) - get(j, i)) > 1e-10) {
                     return false;
                 }
             }
@@ -104,6 +257,13 @@ public class Matrix {
         return true;
     }
     
+    // equals() compares within a tolerance, which no content hash can respect, so the hash
+    // covers only the shape; fingerprint() identifies exact contents
+    @Override
+    public int hashCode() {
+        return 31 * rows + cols;
+    }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -111,8 +271,10 @@ public class Matrix {
         Matrix other = (Matrix) obj;
         if (rows != other.rows || cols != other.cols) return false;
         for (int i = 0; i < rows; i++) {
+            int a = offset + i * stride;
+            int b = other.offset + i * other.stride;
             for (int j = 0; j < cols; j++) {
-                if (Math.abs(data[i][j] - other.data[i][j]) > 1e-10) {
+                if (Math.abs(data[a + j] - other.data[b + j]) > 1e-10) {
                     return false;
                 }
             }
@@ -0,0 +1,157 @@
+package core;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Owner of off-heap matrix storage. Every OffHeapMatrix allocated here lives until the
+// arena is closed; close() releases the native memory right away instead of waiting for
+// the garbage collector, after which any access to those matrices throws.
+// Every access holds the arena open (enter / exit) and close() waits for the ones in
+// progress, so a kernel racing with close() fails with a MatrixException instead of
+// touching freed memory.
+// Mapped files (map) are released the same way.
+// Direct memory is capped by -XX:MaxDirectMemorySize (defaults to the maximum heap size).
+public final class MatrixArena implements AutoCloseable {
+    static final int ALIGNMENT = 64;
+    
+    // sun.misc.Unsafe.invokeCleaner, when the jdk.unsupported module allows it
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Memory is then released when the buffers are garbage collected
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+    
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private long allocatedBytes;
+    private volatile boolean closed;
+    // Accesses in progress on this arena's matrices
+    private final AtomicInteger users = new AtomicInteger();
+    
+    // Zero-filled rows x cols matrix
+    public OffHeapMatrix allocate(int rows, int cols) {
+        return new OffHeapMatrix(this, rows, cols);
+    }
+    
+    // Read-only view of a row-major .mtxb file, paged in on demand (see MatrixFile.map)
+    public OffHeapMatrix map(Path path) throws IOException {
+        return MatrixFile.map(path, this);
+    }
+    
+    // Off-heap copy of a heap matrix
+    public OffHeapMatrix copyOf(Matrix A) {
+        OffHeapMatrix result = allocate(A.getRows(), A.getCols());
+        enter();
+        try {
+            for (int i = 0; i < A.getRows(); i++) {
+                result.write((long) i * A.getCols(), A.array(), A.getOffset() + i * A.getStride(), A.getCols());
+            }
+        } finally {
+            exit();
+        }
+        return result;
+    }
+    
+    public boolean isOpen() {
+        return !closed;
+    }
+    
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+    
+    // 64-byte aligned, native-order buffer of the given number of doubles
+    synchronized DoubleBuffer allocateChunk(int doubles) {
+        checkOpen();
+        // alignedSlice moves the start up and the end down to the alignment, so over-allocate
+        int bytes = (doubles * Double.BYTES + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        ByteBuffer raw = ByteBuffer.allocateDirect(bytes + ALIGNMENT);
+        buffers.add(raw);
+        allocatedBytes += raw.capacity();
+        return raw.alignedSlice(ALIGNMENT).order(ByteOrder.nativeOrder()).asDoubleBuffer().limit(doubles);
+    }
+    
+    // Take ownership of a buffer allocated elsewhere (a mapped file segment)
+    synchronized void adopt(ByteBuffer buffer) {
+        checkOpen();
+        buffers.add(buffer);
+        allocatedBytes += buffer.capacity();
+    }
+    
+    // Free a direct or mapped buffer now; without the cleaner hook the GC does it later
+    static void release(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // Left to the garbage collector
+        }
+    }
+    
+    void checkOpen() {
+        if (closed) {
+            throw new MatrixException("Matrix arena is closed");
+        }
+    }
+    
+    // Keep the native memory alive until the matching exit(); throws once close() has begun
+    void enter() {
+        users.incrementAndGet();
+        if (closed) {
+            exit();
+            throw new MatrixException("Matrix arena is closed");
+        }
+    }
+    
+    void exit() {
+        if (users.decrementAndGet() == 0 && closed) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+    
+    // New accesses fail from here on; the memory is freed once those in progress have
+    // left (a kernel still running stops at its next bulk access)
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        boolean interrupted = false;
+        while (users.get() > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        for (ByteBuffer buffer : buffers) {
+            release(buffer);
+        }
+        buffers.clear();
+        allocatedBytes = 0;
+    }
+}
\ No newline at end of file
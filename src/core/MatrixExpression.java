@@ -0,0 +1,314 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Lazily evaluated matrix expression. Building one only records a small DAG over Matrix
+// operands; evaluate() flattens it into a sum of scaled terms and computes them with as
+// few passes over memory as possible:
+//  - every element-wise term (a scaled, possibly transposed operand) is applied in one
+//    fused, cache-tiled pass over the result,
+//  - every product then accumulates straight into the result through GemmKernel, with
+//    its scale factor applied while packing,
+//  - transposes are pushed down to the operands and read through swapped strides, so
+//    they are never copied.
+// Operands are read at evaluate() time, not when the expression is built.
+public abstract class MatrixExpression {
+    // Tile of the fused element-wise pass: 32 rows x 512 columns of the result (128 KB)
+    private static final int TILE_ROWS = 32;
+    private static final int TILE_COLS = 512;
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    private final int rows;
+    private final int cols;
+    
+    MatrixExpression(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+    
+    public static MatrixExpression of(Matrix A) {
+        return new Leaf(A);
+    }
+    
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    
+    public MatrixExpression plus(MatrixExpression other) {
+        if (rows != other.rows || cols != other.cols) {
+            throw new MatrixException("Matrix dimensions must match for addition");
+        }
+        return new Sum(this, other, 1.0);
+    }
+    
+    public MatrixExpression plus(Matrix other) {
+        return plus(of(other));
+    }
+    
+    public MatrixExpression minus(MatrixExpression other) {
+        if (rows != other.rows || cols != other.cols) {
+            throw new MatrixException("Matrix dimensions must match for subtraction");
+        }
+        return new Sum(this, other, -1.0);
+    }
+    
+    public MatrixExpression minus(Matrix other) {
+        return minus(of(other));
+    }
+    
+    public MatrixExpression scale(double scalar) {
+        return new Scaled(this, scalar);
+    }
+    
+    public MatrixExpression multiply(MatrixExpression other) {
+        if (cols != other.rows) {
+            throw new MatrixException(
+                "Number of columns in A must equal number of rows in B. " +
+                "A: " + rows + "x" + cols + ", " +
+                "B: " + other.rows + "x" + other.cols
+            );
+        }
+        return new Product(this, other);
+    }
+    
+    public MatrixExpression multiply(Matrix other) {
+        return multiply(of(other));
+    }
+    
+    public MatrixExpression transpose() {
+        return new Transposed(this);
+    }
+    
+    public Matrix evaluate() {
+        Matrix result = new Matrix(rows, cols);
+        Terms terms = new Terms();
+        expand(1.0, false, terms);
+        terms.evaluate(rows, cols, result.getArray(), 0, cols);
+        return result;
+    }
+    
+    // Append coef * (this or its transpose) to out as a flat list of terms
+    abstract void expand(double coef, boolean transposed, Terms out);
+    
+    private static final class Leaf extends MatrixExpression {
+        private final Matrix matrix;
+        
+        Leaf(Matrix matrix) {
+            super(matrix.getRows(), matrix.getCols());
+            this.matrix = matrix;
+        }
+        
+        @Override
+        void expand(double coef, boolean transposed, Terms out) {
+            out.add(new Term(coef, transposed, matrix, null));
+        }
+    }
+    
+    // left + sign * right
+    private static final class Sum extends MatrixExpression {
+        private final MatrixExpression left, right;
+        private final double sign;
+        
+        Sum(MatrixExpression left, MatrixExpression right, double sign) {
+            super(left.getRows(), left.getCols());
+            this.left = left;
+            this.right = right;
+            this.sign = sign;
+        }
+        
+        @Override
+        void expand(double coef, boolean transposed, Terms out) {
+            left.expand(coef, transposed, out);
+            right.expand(coef * sign, transposed, out);
+        }
+    }
+    
+    private static final class Scaled extends MatrixExpression {
+        private final MatrixExpression inner;
+        private final double scalar;
+        
+        Scaled(MatrixExpression inner, double scalar) {
+            super(inner.getRows(), inner.getCols());
+            this.inner = inner;
+            this.scalar = scalar;
+        }
+        
+        @Override
+        void expand(double coef, boolean transposed, Terms out) {
+            inner.expand(coef * scalar, transposed, out);
+        }
+    }
+    
+    private static final class Transposed extends MatrixExpression {
+        private final MatrixExpression inner;
+        
+        Transposed(MatrixExpression inner) {
+            super(inner.getCols(), inner.getRows());
+            this.inner = inner;
+        }
+        
+        @Override
+        void expand(double coef, boolean transposed, Terms out) {
+            inner.expand(coef, !transposed, out);
+        }
+    }
+    
+    private static final class Product extends MatrixExpression {
+        private final MatrixExpression left, right;
+        
+        Product(MatrixExpression left, MatrixExpression right) {
+            super(left.getRows(), right.getCols());
+            this.left = left;
+            this.right = right;
+        }
+        
+        @Override
+        void expand(double coef, boolean transposed, Terms out) {
+            out.add(new Term(coef, transposed, null, this));
+        }
+    }
+    
+    // coef * X or coef * X^T, where X is either a leaf matrix or a product node
+    private static final class Term {
+        double coef;
+        final boolean transposed;
+        final Matrix matrix;
+        final Product product;
+        
+        Term(double coef, boolean transposed, Matrix matrix, Product product) {
+            this.coef = coef;
+            this.transposed = transposed;
+            this.matrix = matrix;
+            this.product = product;
+        }
+        
+        // Read access to the leaf: (i, j) lives at array[offset + i * rowStride + j * colStride]
+        int rowStride() { return transposed ? 1 : matrix.getStride(); }
+        int colStride() { return transposed ? matrix.getStride() : 1; }
+    }
+    
+    // Flattened expression: element-wise terms and product terms. A node reached more than
+    // once (the DAG case, e.g. P + P) is merged into one term, so it is evaluated once.
+    static final class Terms {
+        private final List<Term> elementwise = new ArrayList<>();
+        private final List<Term> products = new ArrayList<>();
+        
+        void add(Term term) {
+            List<Term> list = term.product == null ? elementwise : products;
+            for (Term t : list) {
+                if (t.matrix == term.matrix && t.product == term.product && t.transposed == term.transposed) {
+                    t.coef += term.coef;
+                    return;
+                }
+            }
+            list.add(term);
+        }
+        
+        // Write the sum of all terms into the rows x cols block of c at cOff with row stride cs
+        void evaluate(int rows, int cols, double[] c, int cOff, int cs) {
+            boolean written = false;
+            if (!elementwise.isEmpty()) {
+                fusedPass(rows, cols, c, cOff, cs);
+                written = true;
+            }
+            for (Term t : products) {
+                // (L R)^T = R^T L^T
+                Operand a = t.transposed ? operand(t.product.right, true) : operand(t.product.left, false);
+                Operand b = t.transposed ? operand(t.product.left, true) : operand(t.product.right, false);
+                GemmKernel.gemm(rows, cols, a.cols, t.coef * a.scale * b.scale,
+                                a.array, a.offset, a.rowStride, a.colStride,
+                                b.array, b.offset, b.rowStride, b.colStride,
+                                c, cOff, cs, written);
+                written = true;
+            }
+        }
+        
+        // All element-wise terms in one pass, tile by tile so the destination tile stays
+        // in cache while every term is applied to it
+        private void fusedPass(int rows, int cols, double[] c, int cOff, int cs) {
+            int tiles = (rows + TILE_ROWS - 1) / TILE_ROWS;
+            long workPerTile = (long) TILE_ROWS * cols * elementwise.size();
+            ParallelExecutor.forRows(tiles, workPerTile, (from, to) -> {
+                for (int tile = from; tile < to; tile++) {
+                    int i0 = tile * TILE_ROWS;
+                    int i1 = Math.min(rows, i0 + TILE_ROWS);
+                    for (int j0 = 0; j0 < cols; j0 += TILE_COLS) {
+                        int j1 = Math.min(cols, j0 + TILE_COLS);
+                        for (int t = 0; t < elementwise.size(); t++) {
+                            applyTile(elementwise.get(t), t == 0, i0, i1, j0, j1, c, cOff, cs);
+                        }
+                    }
+                }
+            });
+        }
+        
+        // C[i0..i1, j0..j1] (=|+=) coef * X
+        private static void applyTile(Term term, boolean first, int i0, int i1, int j0, int j1,
+                                      double[] c, int cOff, int cs) {
+            Matrix X = term.matrix;
+            double[] x = X.array();
+            double coef = term.coef;
+            int len = j1 - j0;
+            if (!term.transposed) {
+                for (int i = i0; i < i1; i++) {
+                    int xi = X.getOffset() + i * X.getStride() + j0;
+                    int ci = cOff + i * cs + j0;
+                    if (first) {
+                        KERNELS.scale(x, xi, coef, c, ci, len);
+                    } else {
+                        KERNELS.axpy(coef, x, xi, c, ci, len);
+                    }
+                }
+                return;
+            }
+            // Transposed operand: walk its rows (contiguous) and scatter down C's columns;
+            // the tile is small enough that those column writes stay in cache
+            int xs = X.getStride();
+            for (int j = j0; j < j1; j++) {
+                int xj = X.getOffset() + j * xs;
+                int cj = cOff + j;
+                for (int i = i0; i < i1; i++) {
+                    double v = coef * x[xj + i];
+                    if (first) {
+                        c[cj + i * cs] = v;
+                    } else {
+                        c[cj + i * cs] += v;
+                    }
+                }
+            }
+        }
+        
+        // A product operand as a strided view: a single (scaled, possibly transposed) leaf
+        // is used in place; anything else is evaluated into a temporary first
+        private static Operand operand(MatrixExpression expr, boolean transposed) {
+            Terms terms = new Terms();
+            expr.expand(1.0, transposed, terms);
+            int rows = transposed ? expr.getCols() : expr.getRows();
+            int cols = transposed ? expr.getRows() : expr.getCols();
+            if (terms.products.isEmpty() && terms.elementwise.size() == 1) {
+                Term t = terms.elementwise.get(0);
+                return new Operand(cols, t.matrix.array(), t.matrix.getOffset(),
+                                   t.rowStride(), t.colStride(), t.coef);
+            }
+            double[] tmp = new double[rows * cols];
+            terms.evaluate(rows, cols, tmp, 0, cols);
+            return new Operand(cols, tmp, 0, cols, 1, 1.0);
+        }
+    }
+    
+    private static final class Operand {
+        final int cols;
+        final double[] array;
+        final int offset, rowStride, colStride;
+        final double scale;
+        
+        Operand(int cols, double[] array, int offset, int rowStride, int colStride, double scale) {
+            this.cols = cols;
+            this.array = array;
+            this.offset = offset;
+            this.rowStride = rowStride;
+            this.colStride = colStride;
+            this.scale = scale;
+        }
+    }
+}
\ No newline at end of file
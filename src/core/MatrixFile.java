@@ -0,0 +1,248 @@
+package core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Binary matrix file (.mtxb): a 64-byte little-endian header followed by the elements as
+// raw little-endian IEEE doubles, so the payload starts 64-byte aligned in the file.
+//
+//   offset  size  field
+//        0     4  magic "MTXB"
+//        4     2  format version (1)
+//        6     1  element type (1 = float64)
+//        7     1  layout (0 = row-major, 1 = column-major)
+//        8     8  rows
+//       16     8  columns
+//       24     8  payload length in bytes
+//       32     4  CRC32 of the payload
+//       36     4  CRC32 of header bytes 0..35
+//       40    24  reserved (zero)
+//
+// Files are read and written through FileChannel.map in segments of whole rows, the same
+// 1 GB granularity OffHeapMatrix uses, so map() can hand the segments over as storage.
+public final class MatrixFile {
+    public static final String EXTENSION = "mtxb";
+    
+    static final int HEADER_BYTES = 64;
+    private static final byte[] MAGIC = "MTXB".getBytes(StandardCharsets.US_ASCII);
+    private static final short VERSION = 1;
+    private static final byte FLOAT64 = 1;
+    private static final byte ROW_MAJOR = 0;
+    private static final byte COLUMN_MAJOR = 1;
+    
+    private MatrixFile() {}
+    
+    // Dimensions and layout read from a header
+    private static final class Header {
+        long rows, cols;
+        byte layout;
+        int payloadCrc;
+    }
+    
+    public static void save(Matrix A, Path path) throws IOException {
+        int rows = A.getRows(), cols = A.getCols();
+        double[] a = A.array();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            int segmentRows = segmentRows(cols);
+            for (int r0 = 0; r0 < rows; r0 += segmentRows) {
+                int count = Math.min(segmentRows, rows - r0);
+                MappedByteBuffer segment = mapSegment(channel, FileChannel.MapMode.READ_WRITE, r0, count, cols);
+                DoubleBuffer out = segment.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                for (int i = 0; i < count; i++) {
+                    out.put(i * cols, a, A.getOffset() + (r0 + i) * A.getStride(), cols);
+                }
+                crc.update(segment);
+                MatrixArena.release(segment);
+            }
+            writeHeader(channel, rows, cols, (int) crc.getValue());
+        }
+    }
+    
+    public static void save(OffHeapMatrix A, Path path) throws IOException {
+        OffHeapMatrix.enter(A);
+        try {
+            int rows = A.getRows(), cols = A.getCols();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                CRC32 crc = new CRC32();
+                double[] row = new double[cols];
+                int segmentRows = segmentRows(cols);
+                for (int r0 = 0; r0 < rows; r0 += segmentRows) {
+                    int count = Math.min(segmentRows, rows - r0);
+                    MappedByteBuffer segment = mapSegment(channel, FileChannel.MapMode.READ_WRITE, r0, count, cols);
+                    DoubleBuffer out = segment.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                    for (int i = 0; i < count; i++) {
+                        A.read((long) (r0 + i) * cols, row, 0, cols);
+                        out.put(i * cols, row, 0, cols);
+                    }
+                    crc.update(segment);
+                    MatrixArena.release(segment);
+                }
+                writeHeader(channel, rows, cols, (int) crc.getValue());
+            }
+        } finally {
+            OffHeapMatrix.exit(A);
+        }
+    }
+    
+    // Read into a heap matrix, verifying the checksum on the way
+    public static Matrix load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            // A column-major file is the row-major file of the transpose
+            boolean columnMajor = header.layout == COLUMN_MAJOR;
+            long fileRows = columnMajor ? header.cols : header.rows;
+            long fileCols = columnMajor ? header.rows : header.cols;
+            if (fileRows * fileCols > Integer.MAX_VALUE) {
+                throw new MatrixException("Matrix is too large for the heap: " + header.rows + "x" + header.cols +
+                                          "; map it off-heap instead");
+            }
+            int rows = (int) fileRows, cols = (int) fileCols;
+            Matrix result = new Matrix(rows, cols);
+            double[] data = result.getArray();
+            CRC32 crc = new CRC32();
+            int segmentRows = segmentRows(cols);
+            for (int r0 = 0; r0 < rows; r0 += segmentRows) {
+                int count = Math.min(segmentRows, rows - r0);
+                MappedByteBuffer segment = mapSegment(channel, FileChannel.MapMode.READ_ONLY, r0, count, cols);
+                segment.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(0, data, r0 * cols, count * cols);
+                crc.update(segment);
+                MatrixArena.release(segment);
+            }
+            checkPayload(crc, header);
+            return columnMajor ? MatrixOperations.transpose(result) : result;
+        }
+    }
+    
+    // Map a row-major file read-only as off-heap storage owned by the arena. Nothing is
+    // read up front: pages come in on first access, and the checksum is not verified
+    // (that would touch the whole file; see verify()).
+    public static OffHeapMatrix map(Path path, MatrixArena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.layout != ROW_MAJOR) {
+                throw new MatrixException("Only row-major files can be mapped");
+            }
+            if (header.rows > Integer.MAX_VALUE || header.cols > Integer.MAX_VALUE) {
+                throw new MatrixException("Matrix dimensions exceed " + Integer.MAX_VALUE);
+            }
+            int rows = (int) header.rows, cols = (int) header.cols;
+            int segmentRows = segmentRows(cols);
+            DoubleBuffer[] chunks = new DoubleBuffer[(rows + segmentRows - 1) / segmentRows];
+            for (int c = 0; c < chunks.length; c++) {
+                int r0 = c * segmentRows;
+                MappedByteBuffer segment = mapSegment(channel, FileChannel.MapMode.READ_ONLY,
+                                                      r0, Math.min(segmentRows, rows - r0), cols);
+                arena.adopt(segment);
+                chunks[c] = segment.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+            return new OffHeapMatrix(arena, rows, cols, chunks, segmentRows);
+        }
+    }
+    
+    // Check the header and the payload checksum without loading the matrix
+    public static void verify(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            CRC32 crc = new CRC32();
+            long remaining = header.rows * header.cols * Double.BYTES;
+            long position = HEADER_BYTES;
+            while (remaining > 0) {
+                long length = Math.min(remaining, (long) OffHeapMatrix.CHUNK_DOUBLES * Double.BYTES);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                crc.update(segment);
+                MatrixArena.release(segment);
+                position += length;
+                remaining -= length;
+            }
+            checkPayload(crc, header);
+        }
+    }
+    
+    // Rows per mapped segment, matching OffHeapMatrix chunking
+    private static int segmentRows(int cols) {
+        return Math.max(1, OffHeapMatrix.CHUNK_DOUBLES / cols);
+    }
+    
+    private static MappedByteBuffer mapSegment(FileChannel channel, FileChannel.MapMode mode,
+                                               int firstRow, int count, int cols) throws IOException {
+        long position = HEADER_BYTES + (long) firstRow * cols * Double.BYTES;
+        return channel.map(mode, position, (long) count * cols * Double.BYTES);
+    }
+    
+    private static void writeHeader(FileChannel channel, long rows, long cols, int payloadCrc) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putShort(VERSION).put(FLOAT64).put(ROW_MAJOR);
+        header.putLong(rows).putLong(cols).putLong(rows * cols * Double.BYTES).putInt(payloadCrc);
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, 36);
+        header.putInt((int) crc.getValue());
+        header.clear();
+        channel.write(header, 0);
+    }
+    
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new MatrixException("Not a matrix file: shorter than the header");
+            }
+        }
+        buffer.flip();
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        for (int i = 0; i < 4; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new MatrixException("Not a matrix file: bad magic number");
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 36);
+        if (buffer.getInt(36) != (int) crc.getValue()) {
+            throw new MatrixException("Matrix file header is corrupt (checksum mismatch)");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new MatrixException("Unsupported matrix file version " + version);
+        }
+        byte type = buffer.get();
+        if (type != FLOAT64) {
+            throw new MatrixException("Unsupported element type " + type);
+        }
+        Header header = new Header();
+        header.layout = buffer.get();
+        if (header.layout != ROW_MAJOR && header.layout != COLUMN_MAJOR) {
+            throw new MatrixException("Unknown layout " + header.layout);
+        }
+        header.rows = buffer.getLong();
+        header.cols = buffer.getLong();
+        long payload = buffer.getLong();
+        header.payloadCrc = buffer.getInt();
+        if (header.rows <= 0 || header.cols <= 0 ||
+            header.rows > Long.MAX_VALUE / Double.BYTES / header.cols ||
+            payload != header.rows * header.cols * Double.BYTES) {
+            throw new MatrixException("Matrix file header has inconsistent dimensions");
+        }
+        if (channel.size() < HEADER_BYTES + payload) {
+            throw new MatrixException("Matrix file is truncated: expected " + (HEADER_BYTES + payload) +
+                                      " bytes, found " + channel.size());
+        }
+        return header;
+    }
+    
+    private static void checkPayload(CRC32 crc, Header header) {
+        if ((int) crc.getValue() != header.payloadCrc) {
+            throw new MatrixException("Matrix file is corrupt (checksum mismatch)");
+        }
+    }
+}
\ No newline at end of file
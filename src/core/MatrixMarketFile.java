@@ -0,0 +1,265 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Matrix Market (.mtx) exchange format, real/integer/pattern fields.
+//   coordinate: "rows cols nnz" then one "i j [value]" line per entry (1-based)
+//   array:      "rows cols" then the values in column-major order
+// Symmetric and skew-symmetric files store one triangle; the other is filled in.
+// Coordinate files read naturally into SparseMatrix, array files into Matrix; either
+// can be read as the other.
+public final class MatrixMarketFile {
+    private static final String BANNER = "%%MatrixMarket";
+    
+    private MatrixMarketFile() {}
+    
+    // Receives each stored entry (0-based) once the header is parsed
+    private interface EntrySink {
+        void add(int row, int col, double value);
+    }
+    
+    private static final class Header {
+        boolean coordinate;
+        boolean pattern;
+        // 0 general, 1 symmetric, -1 skew-symmetric
+        int symmetry;
+        int rows, cols;
+        long entries;
+    }
+    
+    public static SparseMatrix readSparse(Path path) throws IOException {
+        return readSparse(path, ProgressListener.NONE);
+    }
+    
+    public static SparseMatrix readSparse(Path path, ProgressListener listener) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            ByteScanner scanner = new ByteScanner(in, Files.size(path), listener);
+            Header header = readHeader(scanner);
+            if (!header.coordinate) {
+                return SparseMatrix.fromDense(readArray(scanner, header));
+            }
+            long capacity = header.symmetry == 0 ? header.entries : 2 * header.entries;
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new MatrixException("Too many entries for a sparse matrix: " + capacity);
+            }
+            int[] ri = new int[(int) capacity];
+            int[] ci = new int[(int) capacity];
+            double[] v = new double[(int) capacity];
+            int[] count = new int[1];
+            readCoordinate(scanner, header, (i, j, value) -> {
+                int e = count[0]++;
+                ri[e] = i;
+                ci[e] = j;
+                v[e] = value;
+            });
+            return SparseMatrix.fromTriplets(header.rows, header.cols, ri, ci, v, count[0]);
+        }
+    }
+    
+    public static Matrix readDense(Path path) throws IOException {
+        return readDense(path, ProgressListener.NONE);
+    }
+    
+    public static Matrix readDense(Path path, ProgressListener listener) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            ByteScanner scanner = new ByteScanner(in, Files.size(path), listener);
+            Header header = readHeader(scanner);
+            if (!header.coordinate) {
+                return readArray(scanner, header);
+            }
+            Matrix result = new Matrix(header.rows, header.cols);
+            double[] c = result.getArray();
+            int cols = header.cols;
+            // Duplicate coordinates are summed, as in SparseMatrix.fromTriplets
+            readCoordinate(scanner, header, (i, j, value) -> c[i * cols + j] += value);
+            return result;
+        }
+    }
+    
+    private static Header readHeader(ByteScanner scanner) throws IOException {
+        String banner = scanner.readLine().trim();
+        String[] words = banner.toLowerCase(Locale.ROOT).split("\\s+");
+        if (words.length != 5 || !words[0].equals(BANNER.toLowerCase(Locale.ROOT)) || !words[1].equals("matrix")) {
+            throw new MatrixException("Not a Matrix Market file: expected '" + BANNER + " matrix ...' on line 1");
+        }
+        Header header = new Header();
+        switch (words[2]) {
+            case "coordinate": header.coordinate = true; break;
+            case "array": header.coordinate = false; break;
+            default: throw new MatrixException("Unknown Matrix Market format '" + words[2] + "'");
+        }
+        switch (words[3]) {
+            case "real":
+            case "double":
+            case "integer":
+                break;
+            case "pattern":
+                header.pattern = true;
+                break;
+            default:
+                throw new MatrixException("Unsupported Matrix Market field '" + words[3] + "' (only real values)");
+        }
+        switch (words[4]) {
+            case "general": header.symmetry = 0; break;
+            case "symmetric": header.symmetry = 1; break;
+            case "skew-symmetric": header.symmetry = -1; break;
+            default: throw new MatrixException("Unsupported Matrix Market symmetry '" + words[4] + "'");
+        }
+        if (header.pattern && !header.coordinate) {
+            throw new MatrixException("Pattern matrices must use the coordinate format");
+        }
+        
+        // Comment and blank lines, then the size line
+        while (true) {
+            scanner.skipBlanks();
+            int c = scanner.peek();
+            if (c == '%') {
+                scanner.skipLine();
+            } else if (c == '\n' || c == '\r') {
+                scanner.skipNewline();
+            } else {
+                break;
+            }
+        }
+        long rows = scanner.parseLong();
+        long cols = scanner.parseLong();
+        header.entries = header.coordinate ? scanner.parseLong() : 0;
+        if (rows <= 0 || cols <= 0 || rows > Integer.MAX_VALUE || cols > Integer.MAX_VALUE || header.entries < 0) {
+            throw new MatrixException("Invalid Matrix Market size line at line " + scanner.getLine());
+        }
+        if (header.symmetry != 0 && rows != cols) {
+            throw new MatrixException("Symmetric Matrix Market files must be square");
+        }
+        header.rows = (int) rows;
+        header.cols = (int) cols;
+        endLine(scanner);
+        return header;
+    }
+    
+    private static void readCoordinate(ByteScanner scanner, Header header, EntrySink sink) throws IOException {
+        for (long e = 0; e < header.entries; e++) {
+            skipEmptyLines(scanner);
+            long i = scanner.parseLong() - 1;
+            long j = scanner.parseLong() - 1;
+            if (i < 0 || i >= header.rows || j < 0 || j >= header.cols) {
+                throw new MatrixException("Entry (" + (i + 1) + ", " + (j + 1) + ") at line " +
+                                          scanner.getLine() + " is outside a " + header.rows + "x" + header.cols + " matrix");
+            }
+            double value = header.pattern ? 1.0 : scanner.parseDouble();
+            endLine(scanner);
+            sink.add((int) i, (int) j, value);
+            if (header.symmetry != 0 && i != j) {
+                sink.add((int) j, (int) i, header.symmetry * value);
+            }
+        }
+    }
+    
+    private static Matrix readArray(ByteScanner scanner, Header header) throws IOException {
+        int rows = header.rows, cols = header.cols;
+        Matrix result = new Matrix(rows, cols);
+        double[] c = result.getArray();
+        for (int j = 0; j < cols; j++) {
+            // Symmetric files list the lower triangle (skew: strictly lower) column by column
+            int first = header.symmetry == 0 ? 0 : header.symmetry > 0 ? j : j + 1;
+            for (int i = first; i < rows; i++) {
+                skipEmptyLines(scanner);
+                double value = scanner.parseDouble();
+                endLine(scanner);
+                c[i * cols + j] = value;
+                if (header.symmetry != 0) {
+                    c[j * cols + i] = header.symmetry * value;
+                }
+            }
+        }
+        return result;
+    }
+    
+    private static void skipEmptyLines(ByteScanner scanner) throws IOException {
+        while (true) {
+            scanner.skipBlanks();
+            if (scanner.peek() == -1) {
+                throw scanner.error("Matrix Market file ends early");
+            }
+            if (!scanner.skipNewline()) return;
+        }
+    }
+    
+    private static void endLine(ByteScanner scanner) throws IOException {
+        scanner.skipBlanks();
+        if (!scanner.atLineEnd()) {
+            throw scanner.error("Expected end of line");
+        }
+        scanner.skipNewline();
+    }
+    
+    // Dense matrix in array format
+    public static void write(Matrix A, Path path) throws IOException {
+        write(A, path, ProgressListener.NONE);
+    }
+    
+    public static void write(Matrix A, Path path, ProgressListener listener) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            ByteWriter writer = new ByteWriter(out);
+            int rows = A.getRows(), cols = A.getCols();
+            writer.write(BANNER + " matrix array real general\n");
+            writer.write((long) rows);
+            writer.write(' ');
+            writer.write((long) cols);
+            writer.write('\n');
+            double[] a = A.array();
+            for (int j = 0; j < cols; j++) {
+                int aj = A.getOffset() + j;
+                for (int i = 0; i < rows; i++) {
+                    writer.write(a[aj + i * A.getStride()]);
+                    writer.write('\n');
+                }
+                if ((j & 255) == 255) {
+                    listener.progress(j + 1, cols);
+                }
+            }
+            writer.flush();
+            listener.progress(cols, cols);
+        }
+    }
+    
+    // Sparse matrix in coordinate format, row by row
+    public static void write(SparseMatrix A, Path path) throws IOException {
+        write(A, path, ProgressListener.NONE);
+    }
+    
+    public static void write(SparseMatrix A, Path path, ProgressListener listener) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            ByteWriter writer = new ByteWriter(out);
+            int rows = A.getRows();
+            int[] rowPtr = A.getRowPointers(), colIdx = A.getColumnIndices();
+            double[] values = A.getValues();
+            writer.write(BANNER + " matrix coordinate real general\n");
+            writer.write((long) rows);
+            writer.write(' ');
+            writer.write((long) A.getCols());
+            writer.write(' ');
+            writer.write((long) A.nnz());
+            writer.write('\n');
+            for (int i = 0; i < rows; i++) {
+                for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                    writer.write((long) i + 1);
+                    writer.write(' ');
+                    writer.write((long) colIdx[p] + 1);
+                    writer.write(' ');
+                    writer.write(values[p]);
+                    writer.write('\n');
+                }
+                if ((i & 1023) == 1023) {
+                    listener.progress(i + 1, rows);
+                }
+            }
+            writer.flush();
+            listener.progress(rows, rows);
+        }
+    }
+}
\ No newline at end of file
@@ -1,20 +1,45 @@
 package core;
 
+import java.util.Arrays;
+
 public class MatrixOperations {
+    private static final int TRANSPOSE_TILE = 32;
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    // Name of the active inner-loop implementation ("scalar" or "vector-<bits>")
+    public static String getKernelName() {
+        return KERNELS.name();
+    }
     
     // Matrix addition
     public static Matrix add(Matrix A, Matrix B) {
         if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
             throw new MatrixException("Matrix dimensions must match for addition");
         }
+        return addInto(A, B, new Matrix(A.getRows(), A.getCols()));
+    }
+    
+    // C = A + B into caller-owned storage (C may be A or B itself)
+    public static Matrix addInto(Matrix A, Matrix B, Matrix C) {
+        if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for addition");
+        }
+        checkDestination(C, A.getRows(), A.getCols());
+        checkElementwiseAlias(C, A);
+        checkElementwiseAlias(C, B);
         
-        Matrix result = new Matrix(A.getRows(), A.getCols());
-        for (int i = 0; i < A.getRows(); i++) {
-            for (int j = 0; j < A.getCols(); j++) {
-                result.set(i, j, A.get(i, j) + B.get(i, j));
+        int rows = A.getRows();
+        int cols = A.getCols();
+        double[] a = A.array(), b = B.array(), c = C.getArray();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = A.getOffset() + i * A.getStride();
+                int bi = B.getOffset() + i * B.getStride();
+                int ci = C.getOffset() + i * C.getStride();
+                KERNELS.add(a, ai, b, bi, c, ci, cols);
             }
-        }
-        return result;
+        });
+        return C;
     }
     
     // Matrix subtraction
@@ -22,59 +47,155 @@ public class MatrixOperations {
         if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
             throw new MatrixException("Matrix dimensions must match for subtraction");
         }
+        return subtractInto(A, B, new Matrix(A.getRows(), A.getCols()));
+    }
+    
+    // C = A - B into caller-owned storage (C may be A or B itself)
+    public static Matrix subtractInto(Matrix A, Matrix B, Matrix C) {
+        if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for subtraction");
+        }
+        checkDestination(C, A.getRows(), A.getCols());
+        checkElementwiseAlias(C, A);
+        checkElementwiseAlias(C, B);
         
-        Matrix result = new Matrix(A.getRows(), A.getCols());
-        for (int i = 0; i < A.getRows(); i++) {
-            for (int j = 0; j < A.getCols(); j++) {
-                result.set(i, j, A.get(i, j) - B.get(i, j));
+        int rows = A.getRows();
+        int cols = A.getCols();
+        double[] a = A.array(), b = B.array(), c = C.getArray();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = A.getOffset() + i * A.getStride();
+                int bi = B.getOffset() + i * B.getStride();
+                int ci = C.getOffset() + i * C.getStride();
+                KERNELS.subtract(a, ai, b, bi, c, ci, cols);
             }
-        }
-        return result;
+        });
+        return C;
     }
     
-    // Matrix multiplication
-    public static Matrix multiply(Matrix A, Matrix B) {
-        if (A.getCols() != B.getRows()) {
-            throw new MatrixException(
-                "Number of columns in A must equal number of rows in B. " +
-                "A: " + A.getRows() + "x" + A.getCols() + ", " +
-                "B: " + B.getRows() + "x" + B.getCols()
-            );
+    // Y = Y + alpha * X, in place
+    public static Matrix axpy(double alpha, Matrix X, Matrix Y) {
+        if (X.getRows() != Y.getRows() || X.getCols() != Y.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for axpy");
         }
+        checkElementwiseAlias(Y, X);
         
-        Matrix result = new Matrix(A.getRows(), B.getCols());
-        for (int i = 0; i < A.getRows(); i++) {
-            for (int j = 0; j < B.getCols(); j++) {
-                double sum = 0;
-                for (int k = 0; k < A.getCols(); k++) {
-                    sum += A.get(i, k) * B.get(k, j);
-                }
-                result.set(i, j, sum);
+        int rows = X.getRows();
+        int cols = X.getCols();
+        double[] x = X.array(), y = Y.getArray();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int xi = X.getOffset() + i * X.getStride();
+                int yi = Y.getOffset() + i * Y.getStride();
+                KERNELS.axpy(alpha, x, xi, y, yi, cols);
+            }
+        });
+        return Y;
+    }
+    
+    // Matrix multiplication (kernel picked by size and structure, see MultiplyAlgorithm.AUTO)
+    public static Matrix multiply(Matrix A, Matrix B) {
+        return multiply(A, B, MultiplyAlgorithm.AUTO);
+    }
+    
+    // Matrix multiplication with an explicit kernel choice
+    public static Matrix multiply(Matrix A, Matrix B, MultiplyAlgorithm algorithm) {
+        checkMultiplyShapes(A, B);
+        if (algorithm == MultiplyAlgorithm.AUTO) {
+            // A diagonal factor scales rows or columns in O(n^2); A * A of a symmetric A is
+            // symmetric, so only one triangle is multiplied
+            if (A.getStructure().isDiagonal()) {
+                return StructuredKernels.diagonalTimes(A, B);
+            }
+            if (B.getStructure().isDiagonal()) {
+                return StructuredKernels.timesDiagonal(A, B);
+            }
+            if (A == B && A.getStructure().isSymmetric()) {
+                return StructuredKernels.symmetricSquare(A);
             }
         }
-        return result;
+        boolean strassen = algorithm == MultiplyAlgorithm.STRASSEN ||
+            (algorithm == MultiplyAlgorithm.AUTO &&
+             StrassenMultiply.preferredFor(A.getRows(), A.getCols(), B.getCols()));
+        if (strassen) {
+            return StrassenMultiply.multiply(A, B);
+        }
+        return multiplyInto(A, B, new Matrix(A.getRows(), B.getCols()));
+    }
+    
+    // C = A * B into caller-owned storage (C must not overlap A or B)
+    public static Matrix multiplyInto(Matrix A, Matrix B, Matrix C) {
+        checkMultiplyShapes(A, B);
+        checkDestination(C, A.getRows(), B.getCols());
+        checkNoOverlap(C, A);
+        checkNoOverlap(C, B);
+        
+        GemmKernel.gemm(A.getRows(), B.getCols(), A.getCols(),
+                        A.array(), A.getOffset(), A.getStride(), 1,
+                        B.array(), B.getOffset(), B.getStride(), 1,
+                        C.getArray(), C.getOffset(), C.getStride(), false);
+        return C;
     }
     
     // Scalar multiplication
     public static Matrix scalarMultiply(Matrix A, double scalar) {
-        Matrix result = new Matrix(A.getRows(), A.getCols());
-        for (int i = 0; i < A.getRows(); i++) {
-            for (int j = 0; j < A.getCols(); j++) {
-                result.set(i, j, A.get(i, j) * scalar);
+        return scalarMultiplyInto(A, scalar, new Matrix(A.getRows(), A.getCols()));
+    }
+    
+    // C = scalar * A into caller-owned storage (C may be A itself)
+    public static Matrix scalarMultiplyInto(Matrix A, double scalar, Matrix C) {
+        checkDestination(C, A.getRows(), A.getCols());
+        checkElementwiseAlias(C, A);
+        
+        int rows = A.getRows();
+        int cols = A.getCols();
+        double[] a = A.array(), c = C.getArray();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = A.getOffset() + i * A.getStride();
+                int ci = C.getOffset() + i * C.getStride();
+                KERNELS.scale(a, ai, scalar, c, ci, cols);
             }
-        }
-        return result;
+        });
+        return C;
+    }
+    
+    // A = scalar * A
+    public static Matrix scaleInPlace(Matrix A, double scalar) {
+        return scalarMultiplyInto(A, scalar, A);
     }
     
     // Matrix transpose
     public static Matrix transpose(Matrix A) {
-        Matrix result = new Matrix(A.getCols(), A.getRows());
-        for (int i = 0; i < A.getRows(); i++) {
-            for (int j = 0; j < A.getCols(); j++) {
-                result.set(j, i, A.get(i, j));
+        return transposeInto(A, new Matrix(A.getCols(), A.getRows()));
+    }
+    
+    // C = A^T into caller-owned storage (C must not overlap A)
+    public static Matrix transposeInto(Matrix A, Matrix C) {
+        checkDestination(C, A.getCols(), A.getRows());
+        checkNoOverlap(C, A);
+        
+        int rows = A.getRows();
+        int cols = A.getCols();
+        double[] a = A.array(), c = C.getArray();
+        int cOff = C.getOffset(), cStride = C.getStride();
+        // Rows of A are split across workers; each block is copied in square tiles
+        // so the strided writes into C stay within a few cache lines
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i0 = from; i0 < to; i0 += TRANSPOSE_TILE) {
+                int i1 = Math.min(i0 + TRANSPOSE_TILE, to);
+                for (int j0 = 0; j0 < cols; j0 += TRANSPOSE_TILE) {
+                    int j1 = Math.min(j0 + TRANSPOSE_TILE, cols);
+                    for (int i = i0; i < i1; i++) {
+                        int ai = A.getOffset() + i * A.getStride();
+                        for (int j = j0; j < j1; j++) {
+                            c[cOff + j * cStride + i] = a[ai + j];
+                        }
+                    }
+                }
             }
-        }
-        return result;
+        });
+        return C;
     }
     
     // Dot product (for vectors)
@@ -84,17 +205,25 @@ public class MatrixOperations {
             throw new MatrixException("Both matrices must be vectors of the same dimension");
         }
         
-        double sum = 0;
+        double[] a = A.array(), b = B.array();
+        // Distance between consecutive vector elements: 1 for a row, stride for a column
+        int aStep = (A.getRows() == 1) ? 1 : A.getStride();
+        int bStep = (B.getRows() == 1) ? 1 : B.getStride();
+        int ai = A.getOffset(), bi = B.getOffset();
         int n = Math.max(A.getRows(), A.getCols());
+        if (aStep == 1 && bStep == 1) {
+            return KERNELS.dot(a, ai, b, bi, n);
+        }
+        double sum = 0;
         for (int i = 0; i < n; i++) {
-            double aVal = (A.getRows() == 1) ? A.get(0, i) : A.get(i, 0);
-            double bVal = (B.getRows() == 1) ? B.get(0, i) : B.get(i, 0);
-            sum += aVal * bVal;
+            sum += a[ai] * b[bi];
+            ai += aStep;
+            bi += bStep;
         }
         return sum;
     }
     
-    // Matrix determinant
+    // Matrix determinant (product of the LU pivots, or of the diagonal when triangular)
     public static double determinant(Matrix A) {
         if (!A.isSquare()) {
             throw new MatrixException("Matrix must be square to calculate determinant");
@@ -104,135 +233,735 @@ public class MatrixOperations {
         if (n == 1) return A.get(0, 0);
         if (n == 2) return A.get(0, 0) * A.get(1, 1) - A.get(0, 1) * A.get(1, 0);
         
-        double det = 0;
-        for (int j = 0; j < n; j++) {
-            det += Math.pow(-1, j) * A.get(0, j) * determinant(minor(A, 0, j));
+        MatrixStructure structure = A.getStructure();
+        if (structure.isTriangular()) {
+            return StructuredKernels.diagonalProduct(A);
         }
-        return det;
+        if (StructuredKernels.preferBand(structure, n)) {
+            return StructuredKernels.bandDeterminant(A, structure);
+        }
+        CholeskyDecomposition cholesky = cholesky(A, structure);
+        if (cholesky != null) {
+            return cholesky.determinant();
+        }
+        return new LUDecomposition(A).determinant();
     }
     
-    // Get minor matrix
-    private static Matrix minor(Matrix A, int row, int col) {
-        Matrix minor = new Matrix(A.getRows() - 1, A.getCols() - 1);
-        int mRow = 0;
-        for (int i = 0; i < A.getRows(); i++) {
-            if (i == row) continue;
-            int mCol = 0;
-            for (int j = 0; j < A.getCols(); j++) {
-                if (j == col) continue;
-                minor.set(mRow, mCol, A.get(i, j));
-                mCol++;
-            }
-            mRow++;
+    // Natural log of |det(A)|, safe from overflow/underflow on large matrices
+    public static double logDeterminant(Matrix A) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Matrix must be square to calculate determinant");
+        }
+        CholeskyDecomposition cholesky = cholesky(A, A.getStructure());
+        if (cholesky != null) {
+            return cholesky.logDeterminant();
         }
-        return minor;
+        return new LUDecomposition(A).logDeterminant();
     }
     
-    // Matrix inverse using Gaussian elimination
+    // Sign of det(A): -1, 0 or 1
+    public static int determinantSign(Matrix A) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Matrix must be square to calculate determinant");
+        }
+        return new LUDecomposition(A).determinantSign();
+    }
+    
+    // Matrix inverse from a single LU factorization (singularity is read off the pivots);
+    // diagonal and triangular matrices are inverted directly, symmetric positive-definite
+    // ones from their Cholesky factor
     public static Matrix inverse(Matrix A) {
         if (!A.isSquare()) {
             throw new MatrixException("Matrix must be square to calculate inverse");
         }
+        MatrixStructure structure = A.getStructure();
+        if (structure.isDiagonal()) {
+            return StructuredKernels.diagonalInverse(A);
+        }
+        if (structure.isTriangular()) {
+            return StructuredKernels.triangularInverse(A, structure.isLowerTriangular());
+        }
+        CholeskyDecomposition cholesky = cholesky(A, structure);
+        if (cholesky != null && !cholesky.isSingular()) {
+            return cholesky.inverse();
+        }
+        return new LUDecomposition(A).inverse();
+    }
+    
+    // Solve A * X = B directly from a pivoted LU factorization (every column of B in one
+    // pass); diagonal, triangular and narrow-band A skip the dense factorization and
+    // symmetric positive-definite A uses its Cholesky factor
+    public static Matrix solve(Matrix A, Matrix B) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Coefficient matrix must be square to solve a system");
+        }
+        if (A.getRows() != B.getRows()) {
+            throw new MatrixException(
+                "Number of rows in B must equal the size of A. " +
+                "A: " + A.getRows() + "x" + A.getCols() + ", " +
+                "B: " + B.getRows() + "x" + B.getCols()
+            );
+        }
+        MatrixStructure structure = A.getStructure();
+        if (structure.isDiagonal()) {
+            return StructuredKernels.diagonalSolve(A, B);
+        }
+        if (structure.isTriangular()) {
+            return StructuredKernels.triangularSolve(A, B, structure.isLowerTriangular());
+        }
+        if (StructuredKernels.preferBand(structure, A.getRows())) {
+            return StructuredKernels.bandSolve(A, structure, B);
+        }
+        CholeskyDecomposition cholesky = cholesky(A, structure);
+        if (cholesky != null && !cholesky.isSingular()) {
+            return cholesky.solve(B);
+        }
+        return new LUDecomposition(A).solve(B);
+    }
+    
+    // Cholesky factors of an exactly symmetric A, or null when it is not symmetric or
+    // turns out not to be positive definite (which leaves it to the LU)
+    private static CholeskyDecomposition cholesky(Matrix A, MatrixStructure structure) {
+        if (!structure.isSymmetric()) {
+            return null;
+        }
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(A);
+        return cholesky.isPositiveDefinite() ? cholesky : null;
+    }
+    
+    // Solve from a float LU refined to double accuracy, falling back to a double LU for
+    // ill-conditioned A; the result carries the refinement steps and backward error
+    public static MixedPrecisionSolver.Result solveMixedPrecision(Matrix A, Matrix B) {
+        return new MixedPrecisionSolver(A).solve(B);
+    }
+    
+    // A^-1 the same way (the n right-hand sides make each refinement step O(n^3))
+    public static MixedPrecisionSolver.Result inverseMixedPrecision(Matrix A) {
+        return new MixedPrecisionSolver(A).inverse();
+    }
+    
+    // Matrix power by binary exponentiation: O(log n) products, three n x n buffers total
+    public static Matrix power(Matrix A, int exponent) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Matrix must be square for exponentiation");
+        }
+        if (exponent == 0) {
+            return Matrix.identity(A.getRows());
+        }
         
-        double det = determinant(A);
-        if (Math.abs(det) < 1e-10) {
-            throw new MatrixException("Matrix is singular (determinant = 0), cannot compute inverse");
+        // A negative power is a positive power of the inverse
+        Matrix base = (exponent < 0) ? inverse(A) : A.copy();
+        long e = Math.abs((long) exponent);
+        if (e == 1) {
+            return base;
+        }
+        if (base.getStructure().isDiagonal()) {
+            return StructuredKernels.diagonalPower(base, e);
         }
         
+        // Powers of a symmetric matrix are symmetric (and commute), so every product
+        // only needs one triangle
+        boolean symmetric = base.getStructure().isSymmetric();
         int n = A.getRows();
-        Matrix augmented = new Matrix(n, 2 * n);
+        double[] b = base.getArray();
+        double[] r = null;
+        double[] scratch = new double[n * n];
+        while (true) {
+            CancellationToken.check();
+            if ((e & 1) != 0) {
+                if (r == null) {
+                    r = b.clone();
+                } else {
+                    // r = r * b, then swap r with the scratch buffer
+                    multiplySquare(n, r, b, scratch, symmetric);
+                    double[] t = r; r = scratch; scratch = t;
+                }
+            }
+            e >>>= 1;
+            if (e == 0) break;
+            // b = b * b, then swap b with the scratch buffer
+            multiplySquare(n, b, b, scratch, symmetric);
+            double[] t = b; b = scratch; scratch = t;
+        }
+        return Matrix.wrap(n, n, r);
+    }
+    
+    // c = x * y for dense n x n buffers
+    private static void multiplySquare(int n, double[] x, double[] y, double[] c, boolean symmetric) {
+        if (symmetric) {
+            StructuredKernels.symmetricProduct(n, n, x, 0, n, y, 0, n, c, 0, n);
+        } else {
+            GemmKernel.gemm(n, n, n, x, 0, n, 1, y, 0, n, 1, c, 0, n, false);
+        }
+    }
+    
+    // Trace of matrix
+    public static double trace(Matrix A) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Matrix must be square to calculate trace");
+        }
         
-        // Create augmented matrix [A|I]
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                augmented.set(i, j, A.get(i, j));
-                augmented.set(i, j + n, (i == j) ? 1.0 : 0.0);
+        double[] a = A.array();
+        int step = A.getStride() + 1;
+        int idx = A.getOffset();
+        double trace = 0;
+        for (int i = 0; i < A.getRows(); i++) {
+            trace += a[idx];
+            idx += step;
+        }
+        return trace;
+    }
+    
+    // ---- Sparse (CSR) kernels: work scales with the number of nonzeros ----
+    
+    // Sparse + sparse, merging the sorted rows
+    public static SparseMatrix add(SparseMatrix A, SparseMatrix B) {
+        if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for addition");
+        }
+        
+        int rows = A.getRows();
+        int[] ap = A.getRowPointers(), aj = A.getColumnIndices();
+        int[] bp = B.getRowPointers(), bj = B.getColumnIndices();
+        double[] av = A.getValues(), bv = B.getValues();
+        
+        // Symbolic pass: size of each merged row
+        int[] rowPtr = new int[rows + 1];
+        long perRow = 1 + (A.nnz() + B.nnz()) / rows;
+        ParallelExecutor.forRows(rows, perRow, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int p = ap[i], q = bp[i], count = 0;
+                while (p < ap[i + 1] && q < bp[i + 1]) {
+                    if (aj[p] == bj[q]) { p++; q++; }
+                    else if (aj[p] < bj[q]) p++;
+                    else q++;
+                    count++;
+                }
+                rowPtr[i + 1] = count + (ap[i + 1] - p) + (bp[i + 1] - q);
             }
+        });
+        for (int i = 0; i < rows; i++) {
+            rowPtr[i + 1] += rowPtr[i];
         }
         
-        // Apply Gaussian elimination
-        for (int i = 0; i < n; i++) {
-            // Find pivot
-            int maxRow = i;
-            for (int k = i + 1; k < n; k++) {
-                if (Math.abs(augmented.get(k, i)) > Math.abs(augmented.get(maxRow, i))) {
-                    maxRow = k;
+        // Numeric pass
+        int[] colIdx = new int[rowPtr[rows]];
+        double[] values = new double[rowPtr[rows]];
+        ParallelExecutor.forRows(rows, perRow, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int p = ap[i], q = bp[i], out = rowPtr[i];
+                while (p < ap[i + 1] || q < bp[i + 1]) {
+                    if (q >= bp[i + 1] || (p < ap[i + 1] && aj[p] < bj[q])) {
+                        colIdx[out] = aj[p];
+                        values[out++] = av[p++];
+                    } else if (p >= ap[i + 1] || bj[q] < aj[p]) {
+                        colIdx[out] = bj[q];
+                        values[out++] = bv[q++];
+                    } else {
+                        colIdx[out] = aj[p];
+                        values[out++] = av[p++] + bv[q++];
+                    }
                 }
             }
-            
-            // Swap rows
-            if (maxRow != i) {
-                for (int k = 0; k < 2 * n; k++) {
-                    double temp = augmented.get(i, k);
-                    augmented.set(i, k, augmented.get(maxRow, k));
-                    augmented.set(maxRow, k, temp);
+        });
+        return new SparseMatrix(rows, A.getCols(), rowPtr, colIdx, values, true);
+    }
+    
+    // Sparse * dense (SpMM; SpMV when B has a single column)
+    public static Matrix multiply(SparseMatrix A, Matrix B) {
+        if (A.getCols() != B.getRows()) {
+            throw new MatrixException(
+                "Number of columns in A must equal number of rows in B. " +
+                "A: " + A.getRows() + "x" + A.getCols() + ", " +
+                "B: " + B.getRows() + "x" + B.getCols()
+            );
+        }
+        
+        int rows = A.getRows();
+        int n = B.getCols();
+        Matrix result = new Matrix(rows, n);
+        int[] ap = A.getRowPointers(), aj = A.getColumnIndices();
+        double[] av = A.getValues(), b = B.array(), c = result.getArray();
+        int bOff = B.getOffset(), bStride = B.getStride();
+        long perRow = (1 + A.nnz() / rows) * (long) n;
+        ParallelExecutor.forRows(rows, perRow, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ci = i * n;
+                if (n == 1) {
+                    double sum = 0;
+                    for (int p = ap[i]; p < ap[i + 1]; p++) {
+                        sum += av[p] * b[bOff + aj[p] * bStride];
+                    }
+                    c[ci] = sum;
+                } else {
+                    // C[i, :] += a_ik * B[k, :] for each stored a_ik
+                    for (int p = ap[i]; p < ap[i + 1]; p++) {
+                        KERNELS.axpy(av[p], b, bOff + aj[p] * bStride, c, ci, n);
+                    }
                 }
             }
-            
-            // Normalize pivot row
-            double pivot = augmented.get(i, i);
-            if (Math.abs(pivot) < 1e-10) {
-                throw new MatrixException("Matrix is singular");
-            }
-            
-            for (int k = 0; k < 2 * n; k++) {
-                augmented.set(i, k, augmented.get(i, k) / pivot);
-            }
-            
-            // Eliminate other rows
-            for (int k = 0; k < n; k++) {
-                if (k != i) {
-                    double factor = augmented.get(k, i);
-                    for (int j = 0; j < 2 * n; j++) {
-                        augmented.set(k, j, augmented.get(k, j) - factor * augmented.get(i, j));
+        });
+        return result;
+    }
+    
+    // Dense * sparse
+    public static Matrix multiply(Matrix A, SparseMatrix B) {
+        if (A.getCols() != B.getRows()) {
+            throw new MatrixException(
+                "Number of columns in A must equal number of rows in B. " +
+                "A: " + A.getRows() + "x" + A.getCols() + ", " +
+                "B: " + B.getRows() + "x" + B.getCols()
+            );
+        }
+        
+        int rows = A.getRows();
+        int inner = A.getCols();
+        int n = B.getCols();
+        Matrix result = new Matrix(rows, n);
+        int[] bp = B.getRowPointers(), bj = B.getColumnIndices();
+        double[] bv = B.getValues(), a = A.array(), c = result.getArray();
+        long perRow = inner + B.nnz();
+        ParallelExecutor.forRows(rows, perRow, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = A.getOffset() + i * A.getStride();
+                int ci = i * n;
+                // Scatter row k of B, scaled by a_ik, into row i of C
+                for (int k = 0; k < inner; k++) {
+                    double aik = a[ai + k];
+                    if (aik == 0.0) continue;
+                    for (int p = bp[k]; p < bp[k + 1]; p++) {
+                        c[ci + bj[p]] += aik * bv[p];
                     }
                 }
             }
+        });
+        return result;
+    }
+    
+    // Sparse * sparse (SpGEMM, Gustavson's row-by-row algorithm)
+    public static SparseMatrix multiply(SparseMatrix A, SparseMatrix B) {
+        if (A.getCols() != B.getRows()) {
+            throw new MatrixException(
+                "Number of columns in A must equal number of rows in B. " +
+                "A: " + A.getRows() + "x" + A.getCols() + ", " +
+                "B: " + B.getRows() + "x" + B.getCols()
+            );
         }
         
-        // Extract inverse matrix
-        Matrix inverse = new Matrix(n, n);
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                inverse.set(i, j, augmented.get(i, j + n));
+        int rows = A.getRows();
+        int n = B.getCols();
+        int[] ap = A.getRowPointers(), aj = A.getColumnIndices();
+        int[] bp = B.getRowPointers(), bj = B.getColumnIndices();
+        double[] av = A.getValues(), bv = B.getValues();
+        long perRow = 1 + (A.nnz() / rows + 1) * (B.nnz() / B.getRows() + 1);
+        
+        // Symbolic pass: distinct output columns per row, using a marker per row block
+        int[] rowPtr = new int[rows + 1];
+        ParallelExecutor.forRows(rows, perRow, (from, to) -> {
+            int[] marker = new int[n];
+            Arrays.fill(marker, -1);
+            for (int i = from; i < to; i++) {
+                int count = 0;
+                for (int p = ap[i]; p < ap[i + 1]; p++) {
+                    int k = aj[p];
+                    for (int q = bp[k]; q < bp[k + 1]; q++) {
+                        if (marker[bj[q]] != i) {
+                            marker[bj[q]] = i;
+                            count++;
+                        }
+                    }
+                }
+                rowPtr[i + 1] = count;
             }
+        });
+        for (int i = 0; i < rows; i++) {
+            rowPtr[i + 1] += rowPtr[i];
         }
         
-        return inverse;
+        // Numeric pass: accumulate into a dense row, then gather and sort the touched columns
+        int[] colIdx = new int[rowPtr[rows]];
+        double[] values = new double[rowPtr[rows]];
+        ParallelExecutor.forRows(rows, perRow, (from, to) -> {
+            int[] marker = new int[n];
+            Arrays.fill(marker, -1);
+            double[] acc = new double[n];
+            for (int i = from; i < to; i++) {
+                int start = rowPtr[i];
+                int out = start;
+                for (int p = ap[i]; p < ap[i + 1]; p++) {
+                    int k = aj[p];
+                    double aik = av[p];
+                    for (int q = bp[k]; q < bp[k + 1]; q++) {
+                        int j = bj[q];
+                        if (marker[j] != i) {
+                            marker[j] = i;
+                            acc[j] = aik * bv[q];
+                            colIdx[out++] = j;
+                        } else {
+                            acc[j] += aik * bv[q];
+                        }
+                    }
+                }
+                Arrays.sort(colIdx, start, out);
+                for (int p = start; p < out; p++) {
+                    values[p] = acc[colIdx[p]];
+                }
+            }
+        });
+        return new SparseMatrix(rows, n, rowPtr, colIdx, values, true);
     }
     
-    // Matrix power
-    public static Matrix power(Matrix A, int exponent) {
+    // Sparse transpose (equivalently, the CSC form of A)
+    public static SparseMatrix transpose(SparseMatrix A) {
+        return A.toCSC();
+    }
+    
+    public static SparseMatrix scalarMultiply(SparseMatrix A, double scalar) {
+        double[] v = A.getValues();
+        double[] scaled = new double[A.nnz()];
+        KERNELS.scale(v, 0, scalar, scaled, 0, scaled.length);
+        return new SparseMatrix(A.getRows(), A.getCols(), A.getRowPointers().clone(),
+                                Arrays.copyOf(A.getColumnIndices(), A.nnz()), scaled, true);
+    }
+    
+    public static double trace(SparseMatrix A) {
         if (!A.isSquare()) {
-            throw new MatrixException("Matrix must be square for exponentiation");
+            throw new MatrixException("Matrix must be square to calculate trace");
         }
-        if (exponent < 0) {
-            return power(inverse(A), -exponent);
+        double trace = 0;
+        for (int i = 0; i < A.getRows(); i++) {
+            trace += A.get(i, i);
         }
-        if (exponent == 0) {
-            return Matrix.identity(A.getRows());
+        return trace;
+    }
+    
+    // ---- Off-heap kernels: results are allocated in the arena of the first operand ----
+    
+    public static OffHeapMatrix add(OffHeapMatrix A, OffHeapMatrix B) {
+        return addInto(A, B, A.getArena().allocate(A.getRows(), A.getCols()));
+    }
+    
+    // C = A + B into caller-owned storage (C may be A or B itself)
+    public static OffHeapMatrix addInto(OffHeapMatrix A, OffHeapMatrix B, OffHeapMatrix C) {
+        if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for addition");
+        }
+        checkElementwise(C, A, B);
+        OffHeapKernels.elementwise(OffHeapKernels.ADD, A, B, 0, C);
+        return C;
+    }
+    
+    public static OffHeapMatrix subtract(OffHeapMatrix A, OffHeapMatrix B) {
+        return subtractInto(A, B, A.getArena().allocate(A.getRows(), A.getCols()));
+    }
+    
+    // C = A - B into caller-owned storage (C may be A or B itself)
+    public static OffHeapMatrix subtractInto(OffHeapMatrix A, OffHeapMatrix B, OffHeapMatrix C) {
+        if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for subtraction");
         }
-        if (exponent == 1) {
-            return A.copy();
+        checkElementwise(C, A, B);
+        OffHeapKernels.elementwise(OffHeapKernels.SUBTRACT, A, B, 0, C);
+        return C;
+    }
+    
+    // Y = Y + alpha * X, in place
+    public static OffHeapMatrix axpy(double alpha, OffHeapMatrix X, OffHeapMatrix Y) {
+        if (X.getRows() != Y.getRows() || X.getCols() != Y.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for axpy");
         }
-        
-        Matrix result = A.copy();
-        for (int i = 1; i < exponent; i++) {
-            result = multiply(result, A);
+        checkElementwise(Y, X, X);
+        OffHeapKernels.elementwise(OffHeapKernels.AXPY, X, null, alpha, Y);
+        return Y;
+    }
+    
+    public static OffHeapMatrix scalarMultiply(OffHeapMatrix A, double scalar) {
+        return scalarMultiplyInto(A, scalar, A.getArena().allocate(A.getRows(), A.getCols()));
+    }
+    
+    // C = scalar * A into caller-owned storage (C may be A itself)
+    public static OffHeapMatrix scalarMultiplyInto(OffHeapMatrix A, double scalar, OffHeapMatrix C) {
+        checkElementwise(C, A, A);
+        OffHeapKernels.elementwise(OffHeapKernels.SCALE, A, null, scalar, C);
+        return C;
+    }
+    
+    public static OffHeapMatrix transpose(OffHeapMatrix A) {
+        return transposeInto(A, A.getArena().allocate(A.getCols(), A.getRows()));
+    }
+    
+    // C = A^T into caller-owned storage (C must not overlap A)
+    public static OffHeapMatrix transposeInto(OffHeapMatrix A, OffHeapMatrix C) {
+        checkDestination(C, A.getCols(), A.getRows());
+        checkNoOverlap(C, A);
+        OffHeapKernels.transpose(A, C);
+        return C;
+    }
+    
+    public static OffHeapMatrix multiply(OffHeapMatrix A, OffHeapMatrix B) {
+        checkMultiplyShapes(A.getRows(), A.getCols(), B.getRows(), B.getCols());
+        return multiplyInto(A, B, A.getArena().allocate(A.getRows(), B.getCols()));
+    }
+    
+    // C = A * B into caller-owned storage (C must not overlap A or B)
+    public static OffHeapMatrix multiplyInto(OffHeapMatrix A, OffHeapMatrix B, OffHeapMatrix C) {
+        checkMultiplyShapes(A.getRows(), A.getCols(), B.getRows(), B.getCols());
+        checkDestination(C, A.getRows(), B.getCols());
+        checkNoOverlap(C, A);
+        checkNoOverlap(C, B);
+        OffHeapKernels.multiply(A, B, C);
+        return C;
+    }
+    
+    public static double dotProduct(OffHeapMatrix A, OffHeapMatrix B) {
+        boolean aVector = A.getRows() == 1 || A.getCols() == 1;
+        boolean bVector = B.getRows() == 1 || B.getCols() == 1;
+        if (!aVector || !bVector || A.size() != B.size()) {
+            throw new MatrixException("Dot product requires two vectors of the same length");
         }
-        return result;
+        A.checkOpen();
+        B.checkOpen();
+        return OffHeapKernels.dot(A, B);
     }
     
-    // Trace of matrix
-    public static double trace(Matrix A) {
+    public static double trace(OffHeapMatrix A) {
         if (!A.isSquare()) {
             throw new MatrixException("Matrix must be square to calculate trace");
         }
-        
-        double trace = 0;
-        for (int i = 0; i < A.getRows(); i++) {
-            trace += A.get(i, i);
+        return OffHeapKernels.trace(A);
+    }
+    
+    // Binary exponentiation; the intermediate products live in a temporary arena
+    public static OffHeapMatrix power(OffHeapMatrix A, int exponent) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Matrix must be square for power operation");
+        }
+        int n = A.getRows();
+        OffHeapMatrix result = A.getArena().allocate(n, n);
+        long e = Math.abs((long) exponent);
+        if (e == 0) {
+            for (int i = 0; i < n; i++) {
+                result.set(i, i, 1.0);
+            }
+            return result;
+        }
+        try (MatrixArena scratch = new MatrixArena()) {
+            OffHeapMatrix b = exponent < 0 ? scratch.copyOf(inverse(A.toMatrix()))
+                                           : scalarMultiplyInto(A, 1.0, scratch.allocate(n, n));
+            OffHeapMatrix t = scratch.allocate(n, n);
+            OffHeapMatrix r = null;
+            while (true) {
+                CancellationToken.check();
+                if ((e & 1) != 0) {
+                    if (r == null) {
+                        r = scalarMultiplyInto(b, 1.0, scratch.allocate(n, n));
+                    } else {
+                        multiplyInto(r, b, t);
+                        OffHeapMatrix swap = r; r = t; t = swap;
+                    }
+                }
+                e >>= 1;
+                if (e == 0) break;
+                multiplyInto(b, b, t);
+                OffHeapMatrix swap = b; b = t; t = swap;
+            }
+            return scalarMultiplyInto(r, 1.0, result);
+        }
+    }
+    
+    // The LU-based operations factor on the heap, so they need n * n to fit in one array
+    public static double determinant(OffHeapMatrix A) {
+        return determinant(A.toMatrix());
+    }
+    
+    public static OffHeapMatrix inverse(OffHeapMatrix A) {
+        return A.getArena().copyOf(inverse(A.toMatrix()));
+    }
+    
+    public static OffHeapMatrix solve(OffHeapMatrix A, OffHeapMatrix B) {
+        return A.getArena().copyOf(solve(A.toMatrix(), B.toMatrix()));
+    }
+    
+    // ---- Single-precision kernels: float storage, float or double accumulation ----
+    
+    public static FloatMatrix add(FloatMatrix A, FloatMatrix B) {
+        return addInto(A, B, new FloatMatrix(A.getRows(), A.getCols()));
+    }
+    
+    // C = A + B into caller-owned storage (C may be A or B itself)
+    public static FloatMatrix addInto(FloatMatrix A, FloatMatrix B, FloatMatrix C) {
+        if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for addition");
+        }
+        checkDestination(C, A.getRows(), A.getCols());
+        checkElementwiseAlias(C, A);
+        checkElementwiseAlias(C, B);
+        FloatKernels.elementwise(FloatKernels.ADD, A, B, 0f, C);
+        return C;
+    }
+    
+    public static FloatMatrix subtract(FloatMatrix A, FloatMatrix B) {
+        return subtractInto(A, B, new FloatMatrix(A.getRows(), A.getCols()));
+    }
+    
+    // C = A - B into caller-owned storage (C may be A or B itself)
+    public static FloatMatrix subtractInto(FloatMatrix A, FloatMatrix B, FloatMatrix C) {
+        if (A.getRows() != B.getRows() || A.getCols() != B.getCols()) {
+            throw new MatrixException("Matrix dimensions must match for subtraction");
+        }
+        checkDestination(C, A.getRows(), A.getCols());
+        checkElementwiseAlias(C, A);
+        checkElementwiseAlias(C, B);
+        FloatKernels.elementwise(FloatKernels.SUBTRACT, A, B, 0f, C);
+        return C;
+    }
+    
+    // The scalar is rounded to float first
+    public static FloatMatrix scalarMultiply(FloatMatrix A, double scalar) {
+        return scalarMultiplyInto(A, scalar, new FloatMatrix(A.getRows(), A.getCols()));
+    }
+    
+    // C = scalar * A into caller-owned storage (C may be A itself)
+    public static FloatMatrix scalarMultiplyInto(FloatMatrix A, double scalar, FloatMatrix C) {
+        checkDestination(C, A.getRows(), A.getCols());
+        checkElementwiseAlias(C, A);
+        FloatKernels.elementwise(FloatKernels.SCALE, A, null, (float) scalar, C);
+        return C;
+    }
+    
+    public static FloatMatrix transpose(FloatMatrix A) {
+        return transposeInto(A, new FloatMatrix(A.getCols(), A.getRows()));
+    }
+    
+    // C = A^T into caller-owned storage (C must not overlap A)
+    public static FloatMatrix transposeInto(FloatMatrix A, FloatMatrix C) {
+        checkDestination(C, A.getCols(), A.getRows());
+        checkNoOverlap(C, A);
+        FloatKernels.transpose(A, C);
+        return C;
+    }
+    
+    // Float accumulation: fastest, with rounding error growing with the inner dimension
+    public static FloatMatrix multiply(FloatMatrix A, FloatMatrix B) {
+        return multiply(A, B, false);
+    }
+    
+    // With doubleAccumulation every element is summed in double and rounded to float once
+    public static FloatMatrix multiply(FloatMatrix A, FloatMatrix B, boolean doubleAccumulation) {
+        checkMultiplyShapes(A.getRows(), A.getCols(), B.getRows(), B.getCols());
+        return multiplyInto(A, B, new FloatMatrix(A.getRows(), B.getCols()), doubleAccumulation);
+    }
+    
+    // C = A * B into caller-owned storage (C must not overlap A or B)
+    public static FloatMatrix multiplyInto(FloatMatrix A, FloatMatrix B, FloatMatrix C, boolean doubleAccumulation) {
+        checkMultiplyShapes(A.getRows(), A.getCols(), B.getRows(), B.getCols());
+        checkDestination(C, A.getRows(), B.getCols());
+        checkNoOverlap(C, A);
+        checkNoOverlap(C, B);
+        FloatKernels.multiply(A, B, C, doubleAccumulation);
+        return C;
+    }
+    
+    private static void checkMultiplyShapes(Matrix A, Matrix B) {
+        checkMultiplyShapes(A.getRows(), A.getCols(), B.getRows(), B.getCols());
+    }
+    
+    private static void checkMultiplyShapes(int aRows, int aCols, int bRows, int bCols) {
+        if (aCols != bRows) {
+            throw new MatrixException(
+                "Number of columns in A must equal number of rows in B. " +
+                "A: " + aRows + "x" + aCols + ", " +
+                "B: " + bRows + "x" + bCols
+            );
+        }
+    }
+    
+    private static void checkDestination(Matrix C, int rows, int cols) {
+        if (C.getRows() != rows || C.getCols() != cols) {
+            throw new MatrixException(
+                "Destination must be " + rows + "x" + cols + ", got " +
+                C.getRows() + "x" + C.getCols()
+            );
+        }
+    }
+    
+    private static void checkDestination(OffHeapMatrix C, int rows, int cols) {
+        if (C.getRows() != rows || C.getCols() != cols) {
+            throw new MatrixException(
+                "Destination must be " + rows + "x" + cols + ", got " +
+                C.getRows() + "x" + C.getCols()
+            );
+        }
+        C.checkOpen();
+        C.checkWritable();
+    }
+    
+    // Off-heap element-wise kernels stage each run before writing it, so exact aliases are safe
+    private static void checkElementwise(OffHeapMatrix C, OffHeapMatrix A, OffHeapMatrix B) {
+        checkDestination(C, A.getRows(), A.getCols());
+        A.checkOpen();
+        B.checkOpen();
+        if (!C.sameView(A)) checkNoOverlap(C, A);
+        if (!C.sameView(B)) checkNoOverlap(C, B);
+    }
+    
+    private static void checkNoOverlap(OffHeapMatrix C, OffHeapMatrix X) {
+        X.checkOpen();
+        if (C.overlaps(X)) {
+            throw new MatrixException("Destination storage overlaps an operand");
+        }
+    }
+    
+    private static void checkDestination(FloatMatrix C, int rows, int cols) {
+        if (C.getRows() != rows || C.getCols() != cols) {
+            throw new MatrixException(
+                "Destination must be " + rows + "x" + cols + ", got " +
+                C.getRows() + "x" + C.getCols()
+            );
+        }
+    }
+    
+    // Element-wise kernels read (i, j) before writing (i, j), so an exact alias is safe
+    private static void checkElementwiseAlias(Matrix C, Matrix X) {
+        if (C.array() == X.array() &&
+            C.getOffset() == X.getOffset() && C.getStride() == X.getStride()) {
+            return;
+        }
+        checkNoOverlap(C, X);
+    }
+    
+    private static void checkNoOverlap(Matrix C, Matrix X) {
+        if (overlaps(C, X)) {
+            throw new MatrixException("Destination storage overlaps an operand");
+        }
+    }
+    
+    // Conservative test: do the storage spans of the two matrices intersect?
+    private static boolean overlaps(Matrix X, Matrix Y) {
+        if (X.array() != Y.array()) return false;
+        long xStart = X.getOffset();
+        long xEnd = xStart + (long) (X.getRows() - 1) * X.getStride() + X.getCols();
+        long yStart = Y.getOffset();
+        long yEnd = yStart + (long) (Y.getRows() - 1) * Y.getStride() + Y.getCols();
+        return xStart < yEnd && yStart < xEnd;
+    }
+    
+    private static void checkElementwiseAlias(FloatMatrix C, FloatMatrix X) {
+        if (C.getArray() == X.getArray() &&
+            C.getOffset() == X.getOffset() && C.getStride() == X.getStride()) {
+            return;
+        }
+        checkNoOverlap(C, X);
+    }
+    
+    private static void checkNoOverlap(FloatMatrix C, FloatMatrix X) {
+        if (C.getArray() != X.getArray()) return;
+        long cStart = C.getOffset();
+        long cEnd = cStart + (long) (C.getRows() - 1) * C.getStride() + C.getCols();
+        long xStart = X.getOffset();
+        long xEnd = xStart + (long) (X.getRows() - 1) * X.getStride() + X.getCols();
+        if (cStart < xEnd && xStart < cEnd) {
+            throw new MatrixException("Destination storage overlaps an operand");
         }
-        return trace;
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package core;
+
+// Zero pattern of a dense matrix: how far its nonzeros reach below and above the
+// diagonal, and whether it is exactly symmetric. Found in one scan that walks each row
+// in from both ends and stops at the first nonzero, so a dense row costs O(1) and a
+// banded one O(k); the symmetry check only looks inside the band and stops at the first
+// mismatch. Matrix.getStructure() caches it until the next write.
+public final class MatrixStructure {
+    private final int rows;
+    private final int cols;
+    // Largest i - j (resp. j - i) over the nonzeros a_ij; 0 when there are none
+    private final int lowerBandwidth;
+    private final int upperBandwidth;
+    private final boolean symmetric;
+    
+    private MatrixStructure(int rows, int cols, int lowerBandwidth, int upperBandwidth, boolean symmetric) {
+        this.rows = rows;
+        this.cols = cols;
+        this.lowerBandwidth = lowerBandwidth;
+        this.upperBandwidth = upperBandwidth;
+        this.symmetric = symmetric;
+    }
+    
+    static MatrixStructure of(Matrix A) {
+        int rows = A.getRows(), cols = A.getCols();
+        double[] a = A.array();
+        int lower = 0, upper = 0;
+        for (int i = 0; i < rows; i++) {
+            int row = A.getOffset() + i * A.getStride();
+            int first = 0;
+            while (first < cols && a[row + first] == 0.0) {
+                first++;
+            }
+            if (first == cols) continue;
+            int last = cols - 1;
+            while (a[row + last] == 0.0) {
+                last--;
+            }
+            lower = Math.max(lower, i - first);
+            upper = Math.max(upper, last - i);
+        }
+        
+        // Exact comparison: the fast paths rely on one triangle standing in for the other
+        boolean symmetric = rows == cols && lower == upper;
+        for (int i = 1; i < rows && symmetric; i++) {
+            for (int j = Math.max(0, i - lower); j < i; j++) {
+                if (!(A.get(i, j) == A.get(j, i))) {
+                    symmetric = false;
+                    break;
+                }
+            }
+        }
+        return new MatrixStructure(rows, cols, lower, upper, symmetric);
+    }
+    
+    public int getLowerBandwidth() { return lowerBandwidth; }
+    public int getUpperBandwidth() { return upperBandwidth; }
+    
+    // Half-width of the band holding every nonzero
+    public int getBandwidth() {
+        return Math.max(lowerBandwidth, upperBandwidth);
+    }
+    
+    public boolean isSquare() {
+        return rows == cols;
+    }
+    
+    public boolean isDiagonal() {
+        return rows == cols && lowerBandwidth == 0 && upperBandwidth == 0;
+    }
+    
+    public boolean isUpperTriangular() {
+        return rows == cols && lowerBandwidth == 0;
+    }
+    
+    public boolean isLowerTriangular() {
+        return rows == cols && upperBandwidth == 0;
+    }
+    
+    public boolean isTriangular() {
+        return isUpperTriangular() || isLowerTriangular();
+    }
+    
+    // Exactly symmetric (Matrix.isSymmetric() allows a 1e-10 difference)
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+    
+    // Square with every nonzero within bandwidth k of the diagonal
+    public boolean isBanded(int k) {
+        return rows == cols && getBandwidth() <= k;
+    }
+    
+    @Override
+    public String toString() {
+        String shape;
+        if (isDiagonal()) {
+            shape = "diagonal";
+        } else if (isUpperTriangular()) {
+            shape = "upper triangular";
+        } else if (isLowerTriangular()) {
+            shape = "lower triangular";
+        } else {
+            shape = "bandwidth " + lowerBandwidth + "/" + upperBandwidth;
+        }
+        return symmetric ? shape + ", symmetric" : shape;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,284 @@
+package core;
+
+// Solve A * X = B to double accuracy from a single-precision LU factorization.
+// A is factored in float (half the memory traffic, twice the SIMD lanes of the double
+// elimination), then each iteration computes the residual R = B - A * X in double,
+// solves for a correction with the float factors and adds it to X. That converges to
+// a double-accurate X while cond(A) is well below 1 / 2^-24; when it does not (the
+// backward error stops halving, the iteration limit is hit, or A does not fit in
+// float / the float factors are singular) the system is solved again with a double
+// LUDecomposition. Results report the refinement steps, the normwise backward error
+// max_j |b_j - A x_j| / (|A| |x_j| + |b_j|) (infinity norms) and whether it fell back.
+public class MixedPrecisionSolver {
+    // Refinement steps before giving up (LAPACK's dsgesv uses 30)
+    private static final int MAX_ITERATIONS = 30;
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    private final Matrix A;
+    private final int n;
+    private final double normA;
+    // Float L and U (like LUDecomposition.lu) and the row permutation, or null when the
+    // matrix cannot be factored in float and every solve goes straight to double
+    private final float[] lu;
+    private final int[] pivot;
+    private LUDecomposition doubleLU;
+    
+    // Outcome of one solve
+    public static final class Result {
+        private final Matrix solution;
+        private final int iterations;
+        private final double backwardError;
+        private final boolean fallback;
+        
+        Result(Matrix solution, int iterations, double backwardError, boolean fallback) {
+            this.solution = solution;
+            this.iterations = iterations;
+            this.backwardError = backwardError;
+            this.fallback = fallback;
+        }
+        
+        public Matrix getSolution() { return solution; }
+        // Refinement steps taken on the float factors (before any fallback)
+        public int getIterations() { return iterations; }
+        public double getBackwardError() { return backwardError; }
+        // True when the answer came from a double-precision factorization
+        public boolean isFallback() { return fallback; }
+        
+        @Override
+        public String toString() {
+            return String.format("%d refinement step%s, backward error %.3e%s", iterations,
+                                 iterations == 1 ? "" : "s", backwardError,
+                                 fallback ? " (fell back to double LU)" : "");
+        }
+    }
+    
+    public MixedPrecisionSolver(Matrix A) {
+        if (!A.isSquare()) {
+            throw new MatrixException("Coefficient matrix must be square to solve a system");
+        }
+        this.A = A;
+        this.n = A.getRows();
+        this.normA = normInf(A);
+        float[] factors = toFloat(A);
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        if (factors != null && !factor(factors, perm)) {
+            factors = null;
+        }
+        this.lu = factors;
+        this.pivot = perm;
+    }
+    
+    // Whether A could be factored in float at all
+    public boolean isFactoredInFloat() {
+        return lu != null;
+    }
+    
+    public Result solve(Matrix B) {
+        if (B.getRows() != n) {
+            throw new MatrixException(
+                "Number of rows in B must equal the size of A. " +
+                "A: " + n + "x" + n + ", " +
+                "B: " + B.getRows() + "x" + B.getCols()
+            );
+        }
+        int m = B.getCols();
+        double normB = normInf(B);
+        if (lu == null || !Double.isFinite(normA) || !Double.isFinite(normB)) {
+            return fallback(B, 0);
+        }
+        double tolerance = Math.sqrt(n) * 0x1p-53;
+        
+        // X = float solve of B, widened
+        Matrix X = new Matrix(n, m);
+        double[] x = X.getArray();
+        float[] d = new float[n * m];
+        double[] r = new double[n * m];
+        copyRows(B, r, m);
+        if (!floatSolve(r, d, m)) {
+            return fallback(B, 0);
+        }
+        for (int i = 0; i < d.length; i++) {
+            x[i] = d[i];
+        }
+        
+        double error = residual(B, x, r, m, normB);
+        int iterations = 0;
+        while (!(error <= tolerance)) {
+            if (iterations == MAX_ITERATIONS) {
+                return fallback(B, iterations);
+            }
+            CancellationToken.check();
+            // X += float solve of the residual
+            if (!floatSolve(r, d, m)) {
+                return fallback(B, iterations);
+            }
+            for (int i = 0; i < d.length; i++) {
+                x[i] += d[i];
+            }
+            iterations++;
+            double previous = error;
+            error = residual(B, x, r, m, normB);
+            // Converging at less than a halving per step means cond(A) is too large for float
+            if (!(error <= tolerance) && !(error <= 0.5 * previous)) {
+                return fallback(B, iterations);
+            }
+        }
+        return new Result(X, iterations, error, false);
+    }
+    
+    // A^-1 as the solution of A * X = I
+    public Result inverse() {
+        return solve(Matrix.identity(n));
+    }
+    
+    // Double LU solve, factored once and kept for later fallbacks
+    private Result fallback(Matrix B, int iterations) {
+        if (doubleLU == null) {
+            doubleLU = new LUDecomposition(A);
+        }
+        Matrix X = doubleLU.solve(B);
+        double[] r = new double[n * B.getCols()];
+        double error = residual(B, X.array(), r, B.getCols(), normInf(B));
+        return new Result(X, iterations, error, true);
+    }
+    
+    // r = B - A * x (all n x m, x and r dense); returns the normwise backward error
+    private double residual(Matrix B, double[] x, double[] r, int m, double normB) {
+        copyRows(B, r, m);
+        GemmKernel.gemm(n, m, n, -1.0, A.array(), A.getOffset(), A.getStride(), 1,
+                        x, 0, m, 1, r, 0, m, true);
+        double error = 0;
+        for (int j = 0; j < m; j++) {
+            double rNorm = 0, xNorm = 0;
+            for (int i = 0; i < n; i++) {
+                rNorm = Math.max(rNorm, Math.abs(r[i * m + j]));
+                xNorm = Math.max(xNorm, Math.abs(x[i * m + j]));
+            }
+            double scale = normA * xNorm + normB;
+            double columnError = scale > 0 ? rNorm / scale : rNorm == 0 ? 0 : Double.POSITIVE_INFINITY;
+            // A NaN (from a non-finite x) sticks, and fails every tolerance test
+            if (Double.isNaN(columnError) || columnError > error) {
+                error = columnError;
+            }
+        }
+        return error;
+    }
+    
+    // d = float solve of r with the float factors; false if r does not fit in float
+    private boolean floatSolve(double[] r, float[] d, int m) {
+        for (int i = 0; i < n; i++) {
+            int src = pivot[i] * m, dst = i * m;
+            for (int j = 0; j < m; j++) {
+                float v = (float) r[src + j];
+                if (Float.isInfinite(v)) return false;
+                d[dst + j] = v;
+            }
+        }
+        substitute(d, m);
+        return true;
+    }
+    
+    private void copyRows(Matrix B, double[] r, int m) {
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(B.array(), B.getOffset() + i * B.getStride(), r, i * m, m);
+        }
+    }
+    
+    // The same elimination as LUDecomposition.factor in float; false on a zero or
+    // non-finite pivot, which leaves the system to the double factorization
+    private boolean factor(float[] lu, int[] pivot) {
+        for (int k = 0; k < n; k++) {
+            CancellationToken.check();
+            
+            int p = k;
+            float max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                float v = Math.abs(lu[i * n + k]);
+                if (v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+            if (!(max > 0f) || Float.isInfinite(max)) return false;
+            
+            int rk = k * n;
+            if (p != k) {
+                int rp = p * n;
+                for (int j = 0; j < n; j++) {
+                    float temp = lu[rk + j];
+                    lu[rk + j] = lu[rp + j];
+                    lu[rp + j] = temp;
+                }
+                int t = pivot[k];
+                pivot[k] = pivot[p];
+                pivot[p] = t;
+            }
+            
+            float pivotValue = lu[rk + k];
+            for (int i = k + 1; i < n; i++) {
+                int ri = i * n;
+                float factor = lu[ri + k] / pivotValue;
+                lu[ri + k] = factor;
+                if (factor == 0f) continue;
+                KERNELS.axpy(-factor, lu, rk + k + 1, lu, ri + k + 1, n - k - 1);
+            }
+        }
+        return true;
+    }
+    
+    // Forward (L) then back (U) substitution on an n x m float block, as in LUDecomposition
+    private void substitute(float[] x, int m) {
+        for (int i = 1; i < n; i++) {
+            int ri = i * m;
+            for (int k = 0; k < i; k++) {
+                float l = lu[i * n + k];
+                if (l == 0f) continue;
+                KERNELS.axpy(-l, x, k * m, x, ri, m);
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int ri = i * m;
+            for (int k = i + 1; k < n; k++) {
+                float u = lu[i * n + k];
+                if (u == 0f) continue;
+                KERNELS.axpy(-u, x, k * m, x, ri, m);
+            }
+            float d = lu[i * n + i];
+            for (int j = 0; j < m; j++) {
+                x[ri + j] /= d;
+            }
+        }
+    }
+    
+    // Row-major float copy of A, or null if an element overflows float
+    private static float[] toFloat(Matrix A) {
+        int n = A.getRows();
+        float[] f = new float[n * n];
+        double[] a = A.array();
+        for (int i = 0; i < n; i++) {
+            int ai = A.getOffset() + i * A.getStride();
+            for (int j = 0; j < n; j++) {
+                float v = (float) a[ai + j];
+                if (Float.isInfinite(v) && !Double.isInfinite(a[ai + j])) return null;
+                f[i * n + j] = v;
+            }
+        }
+        return f;
+    }
+    
+    // Largest absolute row sum
+    private static double normInf(Matrix M) {
+        double norm = 0;
+        for (int i = 0; i < M.getRows(); i++) {
+            double sum = 0;
+            for (int j = 0; j < M.getCols(); j++) {
+                sum += Math.abs(M.get(i, j));
+            }
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+}
\ No newline at end of file
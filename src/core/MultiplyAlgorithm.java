@@ -0,0 +1,11 @@
+package core;
+
+// Kernel choice for MatrixOperations.multiply
+public enum MultiplyAlgorithm {
+    // Blocked O(n^3) kernel (GemmKernel)
+    CLASSICAL,
+    // Strassen-Winograd recursion down to the classical kernel (StrassenMultiply)
+    STRASSEN,
+    // Strassen once every dimension reaches StrassenMultiply.getThreshold(), classical below
+    AUTO
+}
\ No newline at end of file
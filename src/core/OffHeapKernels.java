@@ -0,0 +1,156 @@
+package core;
+
+// Kernels for OffHeapMatrix. Data is staged through small heap tiles (contiguous runs
+// for element-wise work, square blocks for transpose and multiply) so the existing
+// RowKernels and GemmKernel do the arithmetic; the staging copies are bulk buffer
+// transfers and, for multiply, O(n^2 * n / BLOCK) against O(n^3) flops.
+final class OffHeapKernels {
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    
+    // Elements per staged run of an element-wise kernel (128 KB)
+    private static final int RUN = 1 << 14;
+    // Transpose tile edge
+    private static final int TILE = 256;
+    // Multiply block edge: three 1024 x 1024 blocks are staged at a time (24 MB)
+    private static final int BLOCK = 1024;
+    
+    static final int ADD = 0, SUBTRACT = 1, SCALE = 2, AXPY = 3;
+    
+    private OffHeapKernels() {}
+    
+    // ADD / SUBTRACT: C = A op B;  SCALE: C = s * A;  AXPY: C = C + s * A
+    static void elementwise(int op, OffHeapMatrix A, OffHeapMatrix B, double s, OffHeapMatrix C) {
+        OffHeapMatrix.enter(A, B, C);
+        try {
+            long size = A.size();
+            int runs = (int) ((size + RUN - 1) / RUN);
+            ParallelExecutor.forRows(runs, RUN, (from, to) -> {
+                double[] x = new double[RUN];
+                double[] y = op == SCALE ? null : new double[RUN];
+                long index = (long) from * RUN;
+                long end = Math.min(size, (long) to * RUN);
+                while (index < end) {
+                    int len = (int) Math.min(Math.min(end - index, RUN), Math.min(A.runLength(index), C.runLength(index)));
+                    if (B != null) {
+                        len = Math.min(len, B.runLength(index));
+                    }
+                    A.read(index, x, 0, len);
+                    switch (op) {
+                        case ADD:
+                            B.read(index, y, 0, len);
+                            KERNELS.add(x, 0, y, 0, x, 0, len);
+                            break;
+                        case SUBTRACT:
+                            B.read(index, y, 0, len);
+                            KERNELS.subtract(x, 0, y, 0, x, 0, len);
+                            break;
+                        case SCALE:
+                            KERNELS.scale(x, 0, s, x, 0, len);
+                            break;
+                        default:
+                            C.read(index, y, 0, len);
+                            KERNELS.axpy(s, x, 0, y, 0, len);
+                            break;
+                    }
+                    C.write(index, op == AXPY ? y : x, 0, len);
+                    index += len;
+                }
+            });
+        } finally {
+            OffHeapMatrix.exit(A, B, C);
+        }
+    }
+    
+    // C = A^T, one TILE x TILE block at a time
+    static void transpose(OffHeapMatrix A, OffHeapMatrix C) {
+        OffHeapMatrix.enter(A, C);
+        try {
+            int rows = A.getRows(), cols = A.getCols();
+            int tiles = (rows + TILE - 1) / TILE;
+            ParallelExecutor.forRows(tiles, (long) TILE * cols, (from, to) -> {
+                double[] block = new double[TILE * TILE];
+                double[] flipped = new double[TILE * TILE];
+                for (int t = from; t < to; t++) {
+                    int i0 = t * TILE;
+                    int ib = Math.min(TILE, rows - i0);
+                    for (int j0 = 0; j0 < cols; j0 += TILE) {
+                        int jb = Math.min(TILE, cols - j0);
+                        A.readBlock(i0, j0, ib, jb, block, 0, jb);
+                        for (int i = 0; i < ib; i++) {
+                            for (int j = 0; j < jb; j++) {
+                                flipped[j * ib + i] = block[i * jb + j];
+                            }
+                        }
+                        C.writeBlock(j0, i0, jb, ib, flipped, 0, ib);
+                    }
+                }
+            });
+        } finally {
+            OffHeapMatrix.exit(A, C);
+        }
+    }
+    
+    // C = A * B: for each BLOCK x BLOCK tile of C, stage the matching panels of A and B and
+    // accumulate with the (parallel) blocked GEMM, then store the tile once
+    static void multiply(OffHeapMatrix A, OffHeapMatrix B, OffHeapMatrix C) {
+        OffHeapMatrix.enter(A, B, C);
+        try {
+            int m = A.getRows(), k = A.getCols(), n = B.getCols();
+            int bm = Math.min(BLOCK, m), bk = Math.min(BLOCK, k), bn = Math.min(BLOCK, n);
+            double[] a = new double[bm * bk];
+            double[] b = new double[bk * bn];
+            double[] c = new double[bm * bn];
+            for (int i0 = 0; i0 < m; i0 += bm) {
+                int ib = Math.min(bm, m - i0);
+                for (int j0 = 0; j0 < n; j0 += bn) {
+                    int jb = Math.min(bn, n - j0);
+                    for (int p0 = 0; p0 < k; p0 += bk) {
+                        int pb = Math.min(bk, k - p0);
+                        A.readBlock(i0, p0, ib, pb, a, 0, pb);
+                        B.readBlock(p0, j0, pb, jb, b, 0, jb);
+                        GemmKernel.gemm(ib, jb, pb, a, 0, pb, 1, b, 0, jb, 1, c, 0, jb, p0 > 0);
+                    }
+                    C.writeBlock(i0, j0, ib, jb, c, 0, jb);
+                }
+            }
+        } finally {
+            OffHeapMatrix.exit(A, B, C);
+        }
+    }
+    
+    static double trace(OffHeapMatrix A) {
+        OffHeapMatrix.enter(A);
+        try {
+            double trace = 0;
+            int n = Math.min(A.getRows(), A.getCols());
+            for (int i = 0; i < n; i++) {
+                trace += A.get(i, i);
+            }
+            return trace;
+        } finally {
+            OffHeapMatrix.exit(A);
+        }
+    }
+    
+    static double dot(OffHeapMatrix A, OffHeapMatrix B) {
+        OffHeapMatrix.enter(A, B);
+        try {
+            long size = A.size();
+            double[] x = new double[RUN];
+            double[] y = new double[RUN];
+            double sum = 0;
+            long index = 0;
+            while (index < size) {
+                CancellationToken.check();
+                int len = (int) Math.min(size - index, Math.min(RUN, Math.min(A.runLength(index), B.runLength(index))));
+                A.read(index, x, 0, len);
+                B.read(index, y, 0, len);
+                sum += KERNELS.dot(x, 0, y, 0, len);
+                index += len;
+            }
+            return sum;
+        } finally {
+            OffHeapMatrix.exit(A, B);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,242 @@
+package core;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+
+// Dense row-major matrix stored outside the Java heap, owned by a MatrixArena.
+// Storage is split into direct buffers (chunks) of whole rows, so element indices are
+// long and the total size is bounded only by direct memory, not by the 2^31 array limit
+// or the heap. rowBlock() returns zero-copy views of a row range.
+public final class OffHeapMatrix {
+    // Doubles per chunk (1 GB), rounded down to whole rows
+    static final int CHUNK_DOUBLES = 1 << 27;
+    
+    private final MatrixArena arena;
+    private final DoubleBuffer[] chunks;
+    private final int chunkRows;
+    // Row of the underlying storage that is row 0 of this matrix (non-zero for row blocks)
+    private final int firstRow;
+    private final int rows;
+    private final int cols;
+    
+    OffHeapMatrix(MatrixArena arena, int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new MatrixException("Matrix dimensions must be positive");
+        }
+        if (cols > (Integer.MAX_VALUE - 2 * MatrixArena.ALIGNMENT) / Double.BYTES) {
+            throw new MatrixException("Matrix rows are too long: " + cols + " columns");
+        }
+        this.arena = arena;
+        this.rows = rows;
+        this.cols = cols;
+        this.firstRow = 0;
+        this.chunkRows = Math.max(1, CHUNK_DOUBLES / cols);
+        int count = (rows + chunkRows - 1) / chunkRows;
+        this.chunks = new DoubleBuffer[count];
+        for (int c = 0; c < count; c++) {
+            int chunkRowCount = Math.min(chunkRows, rows - c * chunkRows);
+            chunks[c] = arena.allocateChunk(chunkRowCount * cols);
+        }
+    }
+    
+    // Adopt existing chunks of chunkRows whole rows each (mapped file segments)
+    OffHeapMatrix(MatrixArena arena, int rows, int cols, DoubleBuffer[] chunks, int chunkRows) {
+        this.arena = arena;
+        this.rows = rows;
+        this.cols = cols;
+        this.firstRow = 0;
+        this.chunks = chunks;
+        this.chunkRows = chunkRows;
+    }
+    
+    // View sharing the parent's storage
+    private OffHeapMatrix(OffHeapMatrix parent, int firstRow, int rows) {
+        this.arena = parent.arena;
+        this.chunks = parent.chunks;
+        this.chunkRows = parent.chunkRows;
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.cols = parent.cols;
+    }
+    
+    // Getters
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public MatrixArena getArena() { return arena; }
+    
+    // Number of elements (may exceed Integer.MAX_VALUE)
+    public long size() {
+        return (long) rows * cols;
+    }
+    
+    public double get(int row, int col) {
+        checkIndex(row, col);
+        arena.enter();
+        try {
+            return chunks[chunk(row)].get(position(row, col));
+        } finally {
+            arena.exit();
+        }
+    }
+    
+    public void set(int row, int col, double value) {
+        checkIndex(row, col);
+        checkWritable();
+        arena.enter();
+        try {
+            chunks[chunk(row)].put(position(row, col), value);
+        } finally {
+            arena.exit();
+        }
+    }
+    
+    // Element at row-major index (row * cols + col)
+    public double get(long index) {
+        return get((int) (index / cols), (int) (index % cols));
+    }
+    
+    public void set(long index, double value) {
+        set((int) (index / cols), (int) (index % cols), value);
+    }
+    
+    // Rows [fromRow, toRow) as a view on the same memory
+    public OffHeapMatrix rowBlock(int fromRow, int toRow) {
+        if (fromRow < 0 || toRow > rows || fromRow >= toRow) {
+            throw new MatrixException("Invalid row range [" + fromRow + ", " + toRow + ") for " + rows + " rows");
+        }
+        return new OffHeapMatrix(this, firstRow + fromRow, toRow - fromRow);
+    }
+    
+    // Heap copy; only possible while the matrix fits in a single array
+    public Matrix toMatrix() {
+        if (size() > Integer.MAX_VALUE) {
+            throw new MatrixException("Matrix is too large for the heap: " + rows + "x" + cols);
+        }
+        Matrix result = new Matrix(rows, cols);
+        arena.enter();
+        try {
+            readBlock(0, 0, rows, cols, result.getArray(), 0, cols);
+        } finally {
+            arena.exit();
+        }
+        return result;
+    }
+    
+    public boolean isSquare() {
+        return rows == cols;
+    }
+    
+    // True for matrices mapped from a file (MatrixFile.map), whose storage cannot be written
+    public boolean isReadOnly() {
+        return chunks[0].isReadOnly();
+    }
+    
+    public void save(Path path) throws IOException {
+        MatrixFile.save(this, path);
+    }
+    
+    // ---- Bulk access for kernels ----
+    // Callers hold the arenas open with enter(...) / exit(...) around the whole kernel;
+    // each access below still checks, so a kernel stops soon after close() begins.
+    
+    void checkOpen() {
+        arena.checkOpen();
+    }
+    
+    void checkWritable() {
+        if (isReadOnly()) {
+            throw new MatrixException("Matrix is mapped read-only from a file; copy it into an arena to modify it");
+        }
+    }
+    
+    // Hold the arenas of the given matrices (nulls skipped) open until the matching exit;
+    // if one is closed, nothing stays held and the MatrixException propagates
+    static void enter(OffHeapMatrix... matrices) {
+        for (int i = 0; i < matrices.length; i++) {
+            if (matrices[i] == null) continue;
+            try {
+                matrices[i].arena.enter();
+            } catch (MatrixException e) {
+                for (int j = 0; j < i; j++) {
+                    if (matrices[j] != null) matrices[j].arena.exit();
+                }
+                throw e;
+            }
+        }
+    }
+    
+    static void exit(OffHeapMatrix... matrices) {
+        for (OffHeapMatrix matrix : matrices) {
+            if (matrix != null) matrix.arena.exit();
+        }
+    }
+    
+    // Elements stored contiguously from a row-major index to the end of its chunk
+    int runLength(long index) {
+        arena.checkOpen();
+        int row = (int) (index / cols);
+        return chunks[chunk(row)].limit() - position(row, (int) (index % cols));
+    }
+    
+    // len elements starting at a row-major index; the run must not cross a chunk (see runLength)
+    void read(long index, double[] dst, int dstOff, int len) {
+        arena.checkOpen();
+        int row = (int) (index / cols);
+        chunks[chunk(row)].get(position(row, (int) (index % cols)), dst, dstOff, len);
+    }
+    
+    void write(long index, double[] src, int srcOff, int len) {
+        arena.checkOpen();
+        checkWritable();
+        int row = (int) (index / cols);
+        chunks[chunk(row)].put(position(row, (int) (index % cols)), src, srcOff, len);
+    }
+    
+    // Copy the block at (row, col) of size blockRows x blockCols to or from a strided array
+    void readBlock(int row, int col, int blockRows, int blockCols, double[] dst, int dstOff, int dstStride) {
+        arena.checkOpen();
+        for (int i = 0; i < blockRows; i++) {
+            chunks[chunk(row + i)].get(position(row + i, col), dst, dstOff + i * dstStride, blockCols);
+        }
+    }
+    
+    void writeBlock(int row, int col, int blockRows, int blockCols, double[] src, int srcOff, int srcStride) {
+        arena.checkOpen();
+        checkWritable();
+        for (int i = 0; i < blockRows; i++) {
+            chunks[chunk(row + i)].put(position(row + i, col), src, srcOff + i * srcStride, blockCols);
+        }
+    }
+    
+    // Same storage and the same rows
+    boolean sameView(OffHeapMatrix other) {
+        return chunks == other.chunks && firstRow == other.firstRow && rows == other.rows;
+    }
+    
+    // Do the row ranges of the two matrices share any storage?
+    boolean overlaps(OffHeapMatrix other) {
+        return chunks == other.chunks &&
+               firstRow < other.firstRow + other.rows && other.firstRow < firstRow + rows;
+    }
+    
+    // Indices are relative to this view, so a row block cannot reach its parent's rows
+    private void checkIndex(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new MatrixException("Index (" + row + ", " + col + ") out of bounds for " + rows + "x" + cols);
+        }
+    }
+    
+    private int chunk(int row) {
+        return (firstRow + row) / chunkRows;
+    }
+    
+    private int position(int row, int col) {
+        return ((firstRow + row) % chunkRows) * cols + col;
+    }
+    
+    @Override
+    public String toString() {
+        return "OffHeapMatrix " + rows + "x" + cols;
+    }
+}
\ No newline at end of file
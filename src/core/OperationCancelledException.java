@@ -0,0 +1,9 @@
+package core;
+
+// Thrown by the kernels once the CancellationToken of the running operation is
+// cancelled or past its deadline
+public class OperationCancelledException extends MatrixException {
+    public OperationCancelledException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+// Dedicated fork/join pool shared by the matrix kernels.
+// Work is measured in scalar operations (element updates or multiply-adds);
+// anything under the threshold runs on the calling thread. Tasks carry the caller's
+// CancellationToken onto the workers and check it before each block.
+public final class ParallelExecutor {
+    private static volatile ForkJoinPool pool = createPool(
+        Integer.getInteger("matrix.parallelism", Runtime.getRuntime().availableProcessors()));
+    private static volatile long threshold = Long.getLong("matrix.parallel.threshold", 1L << 20);
+    
+    private ParallelExecutor() {}
+    
+    // Body of a parallel loop over the row range [from, to)
+    interface RowRange {
+        void run(int from, int to);
+    }
+    
+    // Number of worker threads used by the kernels
+    public static int getParallelism() {
+        return pool.getParallelism();
+    }
+    
+    // Replace the worker pool; a parallelism of 1 makes every kernel sequential.
+    // Safe while kernels run: the old pool is not shut down, so calls already in it
+    // finish there, and its daemon workers exit once idle (after the pool's keep-alive)
+    public static synchronized void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new MatrixException("Parallelism must be positive");
+        }
+        pool = createPool(parallelism);
+    }
+    
+    public static long getThreshold() {
+        return threshold;
+    }
+    
+    // Minimum amount of work (scalar operations) before a kernel goes parallel
+    public static void setThreshold(long work) {
+        if (work < 1) {
+            throw new MatrixException("Threshold must be positive");
+        }
+        threshold = work;
+    }
+    
+    static boolean shouldSplit(long work) {
+        return work >= threshold && pool.getParallelism() > 1;
+    }
+    
+    static void invoke(RecursiveAction task) {
+        if (Thread.currentThread() instanceof Worker) {
+            // Already on a worker (nested kernel): fork into that worker's pool, even if it
+            // has been replaced since the outer kernel started
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+    
+    // Run body over [0, rows), splitting into parallel row blocks when the total work is large
+    static void forRows(int rows, long workPerRow, RowRange body) {
+        long total = rows * workPerRow;
+        if (rows < 2 || !shouldSplit(total)) {
+            CancellationToken.check();
+            body.run(0, rows);
+            return;
+        }
+        // Aim for a few blocks per worker so uneven rows still balance
+        int blocks = pool.getParallelism() * 4;
+        int grain = Math.max(1, (int) Math.max(rows / blocks, threshold / Math.max(1, workPerRow)));
+        invoke(new RowTask(0, rows, grain, body, CancellationToken.current()));
+    }
+    
+    private static final class RowTask extends RecursiveAction {
+        private final int from, to, grain;
+        private final RowRange body;
+        private final CancellationToken token;
+        
+        RowTask(int from, int to, int grain, RowRange body, CancellationToken token) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+            this.token = token;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                CancellationToken previous = CancellationToken.enter(token);
+                try {
+                    CancellationToken.check();
+                    body.run(from, to);
+                } finally {
+                    CancellationToken.exit(previous);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RowTask(from, mid, grain, body, token), new RowTask(mid, to, grain, body, token));
+        }
+    }
+    
+    private static ForkJoinPool createPool(int parallelism) {
+        return new ForkJoinPool(parallelism, Worker::new, null, false);
+    }
+    
+    // Worker thread of one of the kernel pools
+    private static final class Worker extends ForkJoinWorkerThread {
+        Worker(ForkJoinPool pool) {
+            super(pool);
+            setName("matrix-worker-" + getPoolIndex());
+            setDaemon(true);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package core;
+
+// Progress callback for long-running I/O: done out of total units (bytes for readers,
+// rows for writers). Called from the thread doing the work.
+@FunctionalInterface
+public interface ProgressListener {
+    ProgressListener NONE = (done, total) -> {};
+    
+    void progress(long done, long total);
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package core;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Bounded cache of operation results, keyed by the operation, its parameters and the
+// exact contents of its matrix operands (shape plus Matrix.fingerprint(), so no operand
+// is copied or kept alive). Least recently used entries are evicted once the estimated
+// size of the cached values exceeds the byte budget. Values are shared between callers
+// and must not be modified.
+public final class ResultCache<V> {
+    private final long maxBytes;
+    private final ToLongFunction<V> sizer;
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    private static final class Entry<V> {
+        final V value;
+        final long bytes;
+        
+        Entry(V value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+    
+    // Operation name plus its operands, with each Matrix reduced to rows, cols and fingerprint
+    public static final class Key {
+        private final String operation;
+        private final List<Object> parts;
+        
+        private Key(String operation, List<Object> parts) {
+            this.operation = operation;
+            this.parts = parts;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return operation.equals(other.operation) && parts.equals(other.parts);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * operation.hashCode() + parts.hashCode();
+        }
+        
+        @Override
+        public String toString() {
+            return operation + parts;
+        }
+    }
+    
+    public ResultCache(long maxBytes, ToLongFunction<V> sizer) {
+        if (maxBytes < 0) {
+            throw new MatrixException("Cache size must not be negative");
+        }
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+    }
+    
+    // Key for an operation; Matrix operands are fingerprinted (one pass over a matrix only
+    // after its storage was written directly), anything else is compared with equals()
+    public static Key key(String operation, Object... operands) {
+        Object[] parts = new Object[operands.length * 3];
+        int n = 0;
+        for (Object operand : operands) {
+            if (operand instanceof Matrix) {
+                Matrix M = (Matrix) operand;
+                parts[n++] = M.getRows();
+                parts[n++] = M.getCols();
+                parts[n++] = M.fingerprint();
+            } else {
+                parts[n++] = operand;
+            }
+        }
+        return new Key(operation, Arrays.asList(Arrays.copyOf(parts, n)));
+    }
+    
+    // Approximate heap footprint of a dense matrix
+    public static long sizeOf(Matrix M) {
+        return 8L * M.getRows() * M.getCols() + 64;
+    }
+    
+    public synchronized V get(Key key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+    
+    // Values larger than the whole budget are not stored
+    public synchronized void put(Key key, V value) {
+        long size = sizer.applyAsLong(value);
+        Entry<V> old = entries.remove(key);
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+        if (size > maxBytes) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, size));
+        bytes += size;
+        Iterator<Map.Entry<Key, Entry<V>>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            bytes -= it.next().getValue().bytes;
+            it.remove();
+            evictions++;
+        }
+    }
+    
+    // Cached value, or compute and cache it (computed outside the lock, so two threads
+    // missing on the same key may both compute it)
+    public V computeIfAbsent(Key key, Supplier<V> compute) {
+        V value = get(key);
+        if (value == null) {
+            value = compute.get();
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+    
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    public synchronized long getEvictionCount() { return evictions; }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries, %.1f of %.1f MB, %d hits, %d misses, %d evictions",
+                             entries.size(), bytes / 1048576.0, maxBytes / 1048576.0, hits, misses, evictions);
+    }
+}
\ No newline at end of file
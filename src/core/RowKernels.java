@@ -0,0 +1,55 @@
+package core;
+
+// Innermost loops over contiguous runs of doubles, shared by the dense kernels.
+// The Vector API implementation is picked at class-load time when the
+// jdk.incubator.vector module is resolved (java --add-modules jdk.incubator.vector)
+// and the hardware has at least 256-bit vectors; otherwise the scalar loops are used.
+// Set -Dmatrix.simd=false to force the scalar implementation.
+interface RowKernels {
+    RowKernels INSTANCE = select();
+    
+    // c[ci..] = a[ai..] + b[bi..]
+    void add(double[] a, int ai, double[] b, int bi, double[] c, int ci, int len);
+    
+    // c[ci..] = a[ai..] - b[bi..]
+    void subtract(double[] a, int ai, double[] b, int bi, double[] c, int ci, int len);
+    
+    // c[ci..] = a[ai..] * s
+    void scale(double[] a, int ai, double s, double[] c, int ci, int len);
+    
+    // y[yi..] += alpha * x[xi..]
+    void axpy(double alpha, double[] x, int xi, double[] y, int yi, int len);
+    
+    // sum of a[ai..] * b[bi..]
+    double dot(double[] a, int ai, double[] b, int bi, int len);
+    
+    // C[4 x 4] += Apack[4 x kc] * Bpack[kc x 4] on packed GEMM slivers
+    void microKernel(int kc, double[] pa, int ap, double[] pb, int bp, double[] c, int cp, int cStride);
+    
+    // Single-precision counterparts for FloatMatrix
+    void add(float[] a, int ai, float[] b, int bi, float[] c, int ci, int len);
+    
+    void subtract(float[] a, int ai, float[] b, int bi, float[] c, int ci, int len);
+    
+    void scale(float[] a, int ai, float s, float[] c, int ci, int len);
+    
+    void axpy(float alpha, float[] x, int xi, float[] y, int yi, int len);
+    
+    // C[4 x 8] += Apack[4 x kc] * Bpack[kc x 8] on packed float slivers
+    void microKernel(int kc, float[] pa, int ap, float[] pb, int bp, float[] c, int cp, int cStride);
+    
+    String name();
+    
+    private static RowKernels select() {
+        if (!Boolean.parseBoolean(System.getProperty("matrix.simd", "true"))) {
+            return new ScalarRowKernels();
+        }
+        try {
+            Class<?> vector = Class.forName("core.VectorRowKernels");
+            return (RowKernels) vector.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            // Module not resolved or vectors too narrow
+            return new ScalarRowKernels();
+        }
+    }
+}
\ No newline at end of file
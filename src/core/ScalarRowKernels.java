@@ -0,0 +1,128 @@
+package core;
+
+// Plain Java loops; the reference implementation of RowKernels
+final class ScalarRowKernels implements RowKernels {
+    @Override
+    public void add(double[] a, int ai, double[] b, int bi, double[] c, int ci, int len) {
+        for (int j = 0; j < len; j++) {
+            c[ci + j] = a[ai + j] + b[bi + j];
+        }
+    }
+    
+    @Override
+    public void subtract(double[] a, int ai, double[] b, int bi, double[] c, int ci, int len) {
+        for (int j = 0; j < len; j++) {
+            c[ci + j] = a[ai + j] - b[bi + j];
+        }
+    }
+    
+    @Override
+    public void scale(double[] a, int ai, double s, double[] c, int ci, int len) {
+        for (int j = 0; j < len; j++) {
+            c[ci + j] = a[ai + j] * s;
+        }
+    }
+    
+    @Override
+    public void axpy(double alpha, double[] x, int xi, double[] y, int yi, int len) {
+        for (int j = 0; j < len; j++) {
+            y[yi + j] += alpha * x[xi + j];
+        }
+    }
+    
+    @Override
+    public double dot(double[] a, int ai, double[] b, int bi, int len) {
+        double sum = 0;
+        for (int j = 0; j < len; j++) {
+            sum += a[ai + j] * b[bi + j];
+        }
+        return sum;
+    }
+    
+    // Accumulators held in registers
+    @Override
+    public void microKernel(int kc, double[] pa, int ap, double[] pb, int bp,
+                            double[] c, int cp, int cStride) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        
+        for (int p = 0; p < kc; p++) {
+            double a0 = pa[ap], a1 = pa[ap + 1], a2 = pa[ap + 2], a3 = pa[ap + 3];
+            double b0 = pb[bp], b1 = pb[bp + 1], b2 = pb[bp + 2], b3 = pb[bp + 3];
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+            ap += 4;
+            bp += 4;
+        }
+        
+        int r0 = cp, r1 = cp + cStride, r2 = r1 + cStride, r3 = r2 + cStride;
+        c[r0] += c00; c[r0 + 1] += c01; c[r0 + 2] += c02; c[r0 + 3] += c03;
+        c[r1] += c10; c[r1 + 1] += c11; c[r1 + 2] += c12; c[r1 + 3] += c13;
+        c[r2] += c20; c[r2 + 1] += c21; c[r2 + 2] += c22; c[r2 + 3] += c23;
+        c[r3] += c30; c[r3 + 1] += c31; c[r3 + 2] += c32; c[r3 + 3] += c33;
+    }
+    
+    @Override
+    public void add(float[] a, int ai, float[] b, int bi, float[] c, int ci, int len) {
+        for (int j = 0; j < len; j++) {
+            c[ci + j] = a[ai + j] + b[bi + j];
+        }
+    }
+    
+    @Override
+    public void subtract(float[] a, int ai, float[] b, int bi, float[] c, int ci, int len) {
+        for (int j = 0; j < len; j++) {
+            c[ci + j] = a[ai + j] - b[bi + j];
+        }
+    }
+    
+    @Override
+    public void scale(float[] a, int ai, float s, float[] c, int ci, int len) {
+        for (int j = 0; j < len; j++) {
+            c[ci + j] = a[ai + j] * s;
+        }
+    }
+    
+    @Override
+    public void axpy(float alpha, float[] x, int xi, float[] y, int yi, int len) {
+        for (int j = 0; j < len; j++) {
+            y[yi + j] += alpha * x[xi + j];
+        }
+    }
+    
+    // Two rows of the tile per pass: 16 accumulators, like the double kernel
+    @Override
+    public void microKernel(int kc, float[] pa, int ap, float[] pb, int bp,
+                            float[] c, int cp, int cStride) {
+        for (int i = 0; i < 4; i += 2) {
+            float c00 = 0, c01 = 0, c02 = 0, c03 = 0, c04 = 0, c05 = 0, c06 = 0, c07 = 0;
+            float c10 = 0, c11 = 0, c12 = 0, c13 = 0, c14 = 0, c15 = 0, c16 = 0, c17 = 0;
+            int a = ap + i, b = bp;
+            for (int p = 0; p < kc; p++) {
+                float a0 = pa[a], a1 = pa[a + 1];
+                float b0 = pb[b], b1 = pb[b + 1], b2 = pb[b + 2], b3 = pb[b + 3];
+                float b4 = pb[b + 4], b5 = pb[b + 5], b6 = pb[b + 6], b7 = pb[b + 7];
+                c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+                c04 += a0 * b4; c05 += a0 * b5; c06 += a0 * b6; c07 += a0 * b7;
+                c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+                c14 += a1 * b4; c15 += a1 * b5; c16 += a1 * b6; c17 += a1 * b7;
+                a += 4;
+                b += 8;
+            }
+            int r0 = cp + i * cStride, r1 = r0 + cStride;
+            c[r0] += c00;     c[r0 + 1] += c01; c[r0 + 2] += c02; c[r0 + 3] += c03;
+            c[r0 + 4] += c04; c[r0 + 5] += c05; c[r0 + 6] += c06; c[r0 + 7] += c07;
+            c[r1] += c10;     c[r1 + 1] += c11; c[r1 + 2] += c12; c[r1 + 3] += c13;
+            c[r1 + 4] += c14; c[r1 + 5] += c15; c[r1 + 6] += c16; c[r1 + 7] += c17;
+        }
+    }
+    
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
\ No newline at end of file
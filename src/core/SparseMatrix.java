@@ -0,0 +1,254 @@
+package core;
+
+import java.util.Arrays;
+
+// Compressed sparse row (CSR) matrix: memory and work scale with the number of nonzeros.
+// Row i holds values[rowPtr[i] .. rowPtr[i + 1]) at columns colIdx[same range], sorted
+// ascending with no duplicates. The compressed sparse column (CSC) form of a matrix is
+// the CSR form of its transpose, see toCSC() / transpose().
+public class SparseMatrix {
+    private final int rows;
+    private final int cols;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] values;
+    
+    // Adopt CSR arrays without copying (validated)
+    public SparseMatrix(int rows, int cols, int[] rowPtr, int[] colIdx, double[] values) {
+        if (rows <= 0 || cols <= 0) {
+            throw new MatrixException("Matrix dimensions must be positive");
+        }
+        if (rowPtr == null || rowPtr.length != rows + 1 || rowPtr[0] != 0) {
+            throw new MatrixException("Row pointer array must have rows + 1 entries starting at 0");
+        }
+        int nnz = rowPtr[rows];
+        if (colIdx == null || values == null || colIdx.length < nnz || values.length < nnz) {
+            throw new MatrixException("Column index and value arrays must hold " + nnz + " entries");
+        }
+        for (int i = 0; i < rows; i++) {
+            if (rowPtr[i + 1] < rowPtr[i]) {
+                throw new MatrixException("Row pointers must be non-decreasing");
+            }
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                int c = colIdx[p];
+                if (c < 0 || c >= cols || (p > rowPtr[i] && c <= colIdx[p - 1])) {
+                    throw new MatrixException("Column indices must be in range and strictly increasing within a row");
+                }
+            }
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.values = values;
+    }
+    
+    // Trusted constructor for kernels that already produce sorted, in-range CSR
+    SparseMatrix(int rows, int cols, int[] rowPtr, int[] colIdx, double[] values, boolean trusted) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.values = values;
+    }
+    
+    // Build from coordinate (COO) triplets in any order; duplicate entries are summed
+    public static SparseMatrix fromTriplets(int rows, int cols, int[] rowIndex, int[] colIndex,
+                                            double[] value, int count) {
+        if (rows <= 0 || cols <= 0) {
+            throw new MatrixException("Matrix dimensions must be positive");
+        }
+        int[] rowPtr = new int[rows + 1];
+        for (int e = 0; e < count; e++) {
+            int r = rowIndex[e];
+            int c = colIndex[e];
+            if (r < 0 || r >= rows || c < 0 || c >= cols) {
+                throw new MatrixException("Entry (" + r + ", " + c + ") is outside a " + rows + "x" + cols + " matrix");
+            }
+            rowPtr[r + 1]++;
+        }
+        for (int i = 0; i < rows; i++) {
+            rowPtr[i + 1] += rowPtr[i];
+        }
+        
+        // Counting sort by row
+        int[] next = Arrays.copyOf(rowPtr, rows);
+        int[] cIdx = new int[count];
+        double[] vals = new double[count];
+        for (int e = 0; e < count; e++) {
+            int p = next[rowIndex[e]]++;
+            cIdx[p] = colIndex[e];
+            vals[p] = value[e];
+        }
+        
+        // Sort each row by column and merge duplicates, compacting in place
+        int out = 0;
+        int start = 0;
+        for (int i = 0; i < rows; i++) {
+            int end = rowPtr[i + 1];
+            sortRow(cIdx, vals, start, end);
+            int rowStart = out;
+            for (int p = start; p < end; p++) {
+                if (out > rowStart && cIdx[out - 1] == cIdx[p]) {
+                    vals[out - 1] += vals[p];
+                } else {
+                    cIdx[out] = cIdx[p];
+                    vals[out] = vals[p];
+                    out++;
+                }
+            }
+            start = end;
+            rowPtr[i + 1] = out;
+        }
+        return new SparseMatrix(rows, cols, rowPtr, Arrays.copyOf(cIdx, out), Arrays.copyOf(vals, out), true);
+    }
+    
+    // Keep entries of a dense matrix whose magnitude exceeds dropTolerance
+    public static SparseMatrix fromDense(Matrix A, double dropTolerance) {
+        int rows = A.getRows();
+        int cols = A.getCols();
+        double[] a = A.array();
+        int[] rowPtr = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            int ai = A.getOffset() + i * A.getStride();
+            int count = 0;
+            for (int j = 0; j < cols; j++) {
+                if (Math.abs(a[ai + j]) > dropTolerance) count++;
+            }
+            rowPtr[i + 1] = rowPtr[i] + count;
+        }
+        int[] colIdx = new int[rowPtr[rows]];
+        double[] values = new double[rowPtr[rows]];
+        int p = 0;
+        for (int i = 0; i < rows; i++) {
+            int ai = A.getOffset() + i * A.getStride();
+            for (int j = 0; j < cols; j++) {
+                double v = a[ai + j];
+                if (Math.abs(v) > dropTolerance) {
+                    colIdx[p] = j;
+                    values[p] = v;
+                    p++;
+                }
+            }
+        }
+        return new SparseMatrix(rows, cols, rowPtr, colIdx, values, true);
+    }
+    
+    public static SparseMatrix fromDense(Matrix A) {
+        return fromDense(A, 0.0);
+    }
+    
+    public static SparseMatrix identity(int size) {
+        int[] rowPtr = new int[size + 1];
+        int[] colIdx = new int[size];
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            rowPtr[i + 1] = i + 1;
+            colIdx[i] = i;
+            values[i] = 1.0;
+        }
+        return new SparseMatrix(size, size, rowPtr, colIdx, values);
+    }
+    
+    public Matrix toDense() {
+        Matrix result = new Matrix(rows, cols);
+        double[] c = result.getArray();
+        for (int i = 0; i < rows; i++) {
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                c[i * cols + colIdx[p]] = values[p];
+            }
+        }
+        return result;
+    }
+    
+    // CSC arrays of this matrix, returned as the CSR form of the transpose:
+    // its row pointers are this matrix's column pointers, its column indices are row indices
+    public SparseMatrix toCSC() {
+        int nnz = nnz();
+        int[] colPtr = new int[cols + 1];
+        for (int p = 0; p < nnz; p++) {
+            colPtr[colIdx[p] + 1]++;
+        }
+        for (int j = 0; j < cols; j++) {
+            colPtr[j + 1] += colPtr[j];
+        }
+        int[] next = Arrays.copyOf(colPtr, cols);
+        int[] rowIdx = new int[nnz];
+        double[] vals = new double[nnz];
+        // Rows are visited in order, so row indices come out sorted within each column
+        for (int i = 0; i < rows; i++) {
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                int q = next[colIdx[p]]++;
+                rowIdx[q] = i;
+                vals[q] = values[p];
+            }
+        }
+        return new SparseMatrix(cols, rows, colPtr, rowIdx, vals, true);
+    }
+    
+    // Getters
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int nnz() { return rowPtr[rows]; }
+    
+    // Direct access to the CSR arrays for bulk kernels
+    public int[] getRowPointers() { return rowPtr; }
+    public int[] getColumnIndices() { return colIdx; }
+    public double[] getValues() { return values; }
+    
+    // Element lookup by binary search within the row
+    public double get(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new MatrixException("Index (" + row + ", " + col + ") out of bounds");
+        }
+        int p = Arrays.binarySearch(colIdx, rowPtr[row], rowPtr[row + 1], col);
+        return p >= 0 ? values[p] : 0.0;
+    }
+    
+    public boolean isSquare() {
+        return rows == cols;
+    }
+    
+    // Fraction of entries that are stored
+    public double density() {
+        return (double) nnz() / ((double) rows * cols);
+    }
+    
+    // Insertion sort for short rows, otherwise sort an index permutation
+    static void sortRow(int[] cIdx, double[] vals, int from, int to) {
+        int len = to - from;
+        if (len < 2) return;
+        if (len <= 32) {
+            for (int p = from + 1; p < to; p++) {
+                int c = cIdx[p];
+                double v = vals[p];
+                int q = p - 1;
+                while (q >= from && cIdx[q] > c) {
+                    cIdx[q + 1] = cIdx[q];
+                    vals[q + 1] = vals[q];
+                    q--;
+                }
+                cIdx[q + 1] = c;
+                vals[q + 1] = v;
+            }
+            return;
+        }
+        // Pack (column, position) into longs so a primitive sort carries the values along
+        long[] keys = new long[len];
+        for (int p = 0; p < len; p++) {
+            keys[p] = ((long) cIdx[from + p] << 32) | p;
+        }
+        Arrays.sort(keys);
+        double[] sorted = new double[len];
+        for (int p = 0; p < len; p++) {
+            cIdx[from + p] = (int) (keys[p] >>> 32);
+            sorted[p] = vals[from + (int) keys[p]];
+        }
+        System.arraycopy(sorted, 0, vals, from, len);
+    }
+    
+    @Override
+    public String toString() {
+        return "SparseMatrix " + rows + "x" + cols + ", nnz = " + nnz();
+    }
+}
\ No newline at end of file
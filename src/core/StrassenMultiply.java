@@ -0,0 +1,210 @@
+package core;
+
+// Strassen-Winograd multiply (7 half-size products and 15 additions per level) for very
+// large products. Recursion stops once a block edge reaches the cutoff, where the
+// blocked GemmKernel takes over. Operands whose sizes are not divisible by 2^levels
+// are zero padded. All temporaries (padded copies plus three scratch blocks per
+// level) are carved out of one arena allocated up front.
+public final class StrassenMultiply {
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    private static volatile int cutoff = Integer.getInteger("matrix.strassen.cutoff", 512);
+    private static volatile int threshold = Integer.getInteger("matrix.strassen.threshold", 2048);
+    
+    private StrassenMultiply() {}
+    
+    // Block edge at or below which the classical kernel is used
+    public static int getCutoff() { return cutoff; }
+    
+    public static void setCutoff(int size) {
+        if (size < 16) {
+            throw new MatrixException("Strassen cutoff must be at least 16");
+        }
+        cutoff = size;
+    }
+    
+    // Smallest dimension from which MultiplyAlgorithm.AUTO picks Strassen
+    public static int getThreshold() { return threshold; }
+    
+    public static void setThreshold(int size) {
+        if (size < 1) {
+            throw new MatrixException("Strassen threshold must be positive");
+        }
+        threshold = size;
+    }
+    
+    static boolean preferredFor(int m, int k, int n) {
+        return Math.min(m, Math.min(k, n)) >= threshold;
+    }
+    
+    // Number of recursion levels before every block edge is within the cutoff
+    static int levels(int m, int k, int n) {
+        int levels = 0;
+        int smallest = Math.min(m, Math.min(k, n));
+        while ((smallest >> levels) > cutoff) {
+            levels++;
+        }
+        return levels;
+    }
+    
+    public static Matrix multiply(Matrix A, Matrix B) {
+        if (A.getCols() != B.getRows()) {
+            throw new MatrixException(
+                "Number of columns in A must equal number of rows in B. " +
+                "A: " + A.getRows() + "x" + A.getCols() + ", " +
+                "B: " + B.getRows() + "x" + B.getCols()
+            );
+        }
+        int m = A.getRows(), k = A.getCols(), n = B.getCols();
+        Matrix result = new Matrix(m, n);
+        int levels = levels(m, k, n);
+        if (levels == 0) {
+            GemmKernel.gemm(m, n, k, A.array(), A.getOffset(), A.getStride(), 1,
+                            B.array(), B.getOffset(), B.getStride(), 1,
+                            result.getArray(), 0, n, false);
+            return result;
+        }
+        
+        int unit = 1 << levels;
+        int pm = roundUp(m, unit), pk = roundUp(k, unit), pn = roundUp(n, unit);
+        boolean padded = pm != m || pk != k || pn != n;
+        
+        // Arena layout: [padded A | padded B | padded C] then X, Y, Z for each level
+        long size = padded ? (long) pm * pk + (long) pk * pn + (long) pm * pn : 0;
+        for (int level = 0; level < levels; level++) {
+            int hm = pm >> (level + 1), hk = pk >> (level + 1), hn = pn >> (level + 1);
+            size += (long) hm * hk + (long) hk * hn + (long) hm * hn;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new MatrixException("Strassen workspace exceeds the maximum array size");
+        }
+        double[] arena = new double[(int) size];
+        
+        if (!padded) {
+            new Recursion(arena, 0, levels).multiply(0, m, k, n,
+                A.array(), A.getOffset(), A.getStride(),
+                B.array(), B.getOffset(), B.getStride(),
+                result.getArray(), 0, n);
+            return result;
+        }
+        
+        int aOff = 0, bOff = pm * pk, cOff = bOff + pk * pn;
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(A.array(), A.getOffset() + i * A.getStride(), arena, aOff + i * pk, k);
+        }
+        for (int i = 0; i < k; i++) {
+            System.arraycopy(B.array(), B.getOffset() + i * B.getStride(), arena, bOff + i * pn, n);
+        }
+        new Recursion(arena, cOff + pm * pn, levels).multiply(0, pm, pk, pn,
+            arena, aOff, pk, arena, bOff, pn, arena, cOff, pn);
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(arena, cOff + i * pn, result.getArray(), i * n, n);
+        }
+        return result;
+    }
+    
+    // Forward error bound in the max-element norm (Higham, "Accuracy and Stability of
+    // Numerical Algorithms", Winograd variant):
+    //   |C - C~| <= [(n/n0)^log2(18) * (n0^2 + 6 n0) - 6 n] * u * |A| * |B|
+    // with n the padded size, n0 the leaf size and u the unit roundoff.
+    public static double errorBound(Matrix A, Matrix B) {
+        int m = A.getRows(), k = A.getCols(), n = B.getCols();
+        int levels = levels(m, k, n);
+        int unit = 1 << levels;
+        double size = Math.max(roundUp(m, unit), Math.max(roundUp(k, unit), roundUp(n, unit)));
+        double leaf = size / unit;
+        double growth = Math.pow(unit, Math.log(18) / Math.log(2)) * (leaf * leaf + 6 * leaf) - 6 * size;
+        double u = Math.ulp(1.0) / 2;
+        return growth * u * maxAbs(A) * maxAbs(B);
+    }
+    
+    private static double maxAbs(Matrix A) {
+        double max = 0;
+        for (int i = 0; i < A.getRows(); i++) {
+            for (int j = 0; j < A.getCols(); j++) {
+                max = Math.max(max, Math.abs(A.get(i, j)));
+            }
+        }
+        return max;
+    }
+    
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+    
+    // One recursive multiply; each level reuses its own X, Y, Z slots in the arena
+    private static final class Recursion {
+        private final double[] arena;
+        private final int[] scratch;
+        private final int levels;
+        
+        Recursion(double[] arena, int start, int levels) {
+            this.arena = arena;
+            this.levels = levels;
+            this.scratch = new int[levels];
+            this.scratch[0] = start;
+        }
+        
+        // C[m x n] = A[m x k] * B[k x n] on row-major blocks (array, offset, stride)
+        void multiply(int level, int m, int k, int n,
+                      double[] a, int ao, int as, double[] b, int bo, int bs,
+                      double[] c, int co, int cs) {
+            if (level == levels) {
+                GemmKernel.gemm(m, n, k, a, ao, as, 1, b, bo, bs, 1, c, co, cs, false);
+                return;
+            }
+            int hm = m / 2, hk = k / 2, hn = n / 2;
+            
+            // Quadrant offsets
+            int a11 = ao, a12 = ao + hk, a21 = ao + hm * as, a22 = a21 + hk;
+            int b11 = bo, b12 = bo + hn, b21 = bo + hk * bs, b22 = b21 + hn;
+            int c11 = co, c12 = co + hn, c21 = co + hm * cs, c22 = c21 + hn;
+            
+            // Scratch for this level: X is hm x hk, Y is hk x hn, Z is hm x hn
+            int x = scratch[level];
+            int y = x + hm * hk;
+            int z = y + hk * hn;
+            if (level + 1 < levels) {
+                scratch[level + 1] = z + hm * hn;
+            }
+            double[] w = arena;
+            
+            // Schedule after Douglas et al. (GEMMW): products land in C's quadrants
+            combine(hm, hk, a, a11, as, 1, a, a21, as, w, x, hk);           // X = A11 - A21      (S3)
+            combine(hk, hn, b, b22, bs, 1, b, b12, bs, w, y, hn);           // Y = B22 - B12      (T3)
+            multiply(level + 1, hm, hk, hn, w, x, hk, w, y, hn, c, c21, cs); // C21 = S3 * T3      (P7)
+            combine(hm, hk, a, a21, as, 0, a, a22, as, w, x, hk);           // X = A21 + A22      (S1)
+            combine(hk, hn, b, b12, bs, 1, b, b11, bs, w, y, hn);           // Y = B12 - B11      (T1)
+            multiply(level + 1, hm, hk, hn, w, x, hk, w, y, hn, c, c22, cs); // C22 = S1 * T1      (P5)
+            combine(hm, hk, w, x, hk, 1, a, a11, as, w, x, hk);             // X = S1 - A11       (S2)
+            combine(hk, hn, b, b22, bs, 1, w, y, hn, w, y, hn);             // Y = B22 - T1       (T2)
+            multiply(level + 1, hm, hk, hn, w, x, hk, w, y, hn, c, c12, cs); // C12 = S2 * T2      (P6)
+            combine(hm, hk, a, a12, as, 1, w, x, hk, w, x, hk);             // X = A12 - S2       (S4)
+            multiply(level + 1, hm, hk, hn, w, x, hk, b, b22, bs, c, c11, cs); // C11 = S4 * B22   (P3)
+            multiply(level + 1, hm, hk, hn, a, a11, as, b, b11, bs, w, z, hn); // Z = A11 * B11    (P1)
+            combine(hm, hn, w, z, hn, 0, c, c12, cs, c, c12, cs);           // C12 = P1 + P6      (U2)
+            combine(hm, hn, c, c12, cs, 0, c, c21, cs, c, c21, cs);         // C21 = U2 + P7      (U3)
+            combine(hm, hn, c, c12, cs, 0, c, c22, cs, c, c12, cs);         // C12 = U2 + P5      (U4)
+            combine(hm, hn, c, c21, cs, 0, c, c22, cs, c, c22, cs);         // C22 = U3 + P5      (U7)
+            combine(hm, hn, c, c12, cs, 0, c, c11, cs, c, c12, cs);         // C12 = U4 + P3      (U5)
+            combine(hk, hn, w, y, hn, 1, b, b21, bs, w, y, hn);             // Y = T2 - B21       (T4)
+            multiply(level + 1, hm, hk, hn, a, a22, as, w, y, hn, c, c11, cs); // C11 = A22 * T4   (P4)
+            combine(hm, hn, c, c21, cs, 1, c, c11, cs, c, c21, cs);         // C21 = U3 - P4      (U6)
+            multiply(level + 1, hm, hk, hn, a, a12, as, b, b21, bs, c, c11, cs); // C11 = A12 * B21 (P2)
+            combine(hm, hn, w, z, hn, 0, c, c11, cs, c, c11, cs);           // C11 = P1 + P2      (U1)
+        }
+        
+        // D = P + Q (op 0) or D = P - Q (op 1) on rows x cols blocks; D may alias P or Q exactly
+        private void combine(int rows, int cols, double[] p, int po, int ps, int op,
+                             double[] q, int qo, int qs, double[] d, int dOff, int ds) {
+            ParallelExecutor.forRows(rows, cols, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (op == 0) {
+                        KERNELS.add(p, po + i * ps, q, qo + i * qs, d, dOff + i * ds, cols);
+                    } else {
+                        KERNELS.subtract(p, po + i * ps, q, qo + i * qs, d, dOff + i * ds, cols);
+                    }
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
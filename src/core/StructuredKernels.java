@@ -0,0 +1,358 @@
+package core;
+
+// Kernels for matrices with known structure (see MatrixStructure), picked by
+// MatrixOperations. Diagonal products, inverses and solves run in O(n^2) or less, the
+// determinant of a triangular matrix is its diagonal product, triangular inverses and
+// solves are plain substitution, banded systems use an LU with partial pivoting on band
+// storage in O(n k^2), and a product known to be symmetric is multiplied one triangle
+// at a time (about half the multiply-adds) and mirrored.
+final class StructuredKernels {
+    private static final RowKernels KERNELS = RowKernels.INSTANCE;
+    // Same singularity threshold as LUDecomposition
+    private static final double EPSILON = LUDecomposition.EPSILON;
+    // Row block of a symmetric product; the diagonal blocks are the work beyond n^3 / 2
+    private static final int SYMMETRIC_BLOCK = 128;
+    // Below this size a symmetric product is a plain GEMM
+    private static final int SYMMETRIC_MIN = 64;
+    private static final int MIRROR_TILE = 32;
+    
+    private StructuredKernels() {}
+    
+    // Band storage pays off once the band, with the fill-in from row swaps, is a small
+    // fraction of each row
+    static boolean preferBand(MatrixStructure s, int n) {
+        return s.isSquare() && 2L * s.getLowerBandwidth() + s.getUpperBandwidth() + 1 <= n / 4;
+    }
+    
+    // ---- Diagonal ----
+    
+    // C = D * B: row i of B scaled by d_i
+    static Matrix diagonalTimes(Matrix D, Matrix B) {
+        int rows = B.getRows(), cols = B.getCols();
+        Matrix C = new Matrix(rows, cols);
+        double[] b = B.array(), c = C.getArray();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                KERNELS.scale(b, B.getOffset() + i * B.getStride(), D.get(i, i), c, i * cols, cols);
+            }
+        });
+        return C;
+    }
+    
+    // C = A * D: column j of A scaled by d_j
+    static Matrix timesDiagonal(Matrix A, Matrix D) {
+        int rows = A.getRows(), cols = A.getCols();
+        double[] d = new double[cols];
+        for (int j = 0; j < cols; j++) {
+            d[j] = D.get(j, j);
+        }
+        Matrix C = new Matrix(rows, cols);
+        double[] a = A.array(), c = C.getArray();
+        ParallelExecutor.forRows(rows, cols, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ai = A.getOffset() + i * A.getStride();
+                int ci = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    c[ci + j] = a[ai + j] * d[j];
+                }
+            }
+        });
+        return C;
+    }
+    
+    static Matrix diagonalInverse(Matrix D) {
+        int n = D.getRows();
+        checkDiagonal(D, "Matrix is singular (determinant = 0), cannot compute inverse");
+        Matrix inv = new Matrix(n, n);
+        double[] x = inv.getArray();
+        for (int i = 0; i < n; i++) {
+            x[i * n + i] = 1.0 / D.get(i, i);
+        }
+        return inv;
+    }
+    
+    // X = D^-1 * B, dividing like LUDecomposition's back substitution
+    static Matrix diagonalSolve(Matrix D, Matrix B) {
+        int n = D.getRows(), m = B.getCols();
+        checkDiagonal(D, "Matrix is singular, system has no unique solution");
+        Matrix X = new Matrix(n, m);
+        double[] b = B.array(), x = X.getArray();
+        for (int i = 0; i < n; i++) {
+            int bi = B.getOffset() + i * B.getStride();
+            double d = D.get(i, i);
+            for (int j = 0; j < m; j++) {
+                x[i * m + j] = b[bi + j] / d;
+            }
+        }
+        return X;
+    }
+    
+    // D^e (e >= 1) with the same multiplication sequence as the dense binary powering
+    static Matrix diagonalPower(Matrix D, long e) {
+        int n = D.getRows();
+        Matrix result = new Matrix(n, n);
+        double[] x = result.getArray();
+        for (int i = 0; i < n; i++) {
+            double b = D.get(i, i);
+            double r = 0;
+            boolean first = true;
+            for (long k = e; ; ) {
+                if ((k & 1) != 0) {
+                    r = first ? b : r * b;
+                    first = false;
+                }
+                k >>>= 1;
+                if (k == 0) break;
+                b *= b;
+            }
+            x[i * n + i] = r;
+        }
+        return result;
+    }
+    
+    // ---- Triangular ----
+    
+    // det = product of the diagonal (also for diagonal matrices)
+    static double diagonalProduct(Matrix T) {
+        double det = 1.0;
+        for (int i = 0; i < T.getRows(); i++) {
+            det *= T.get(i, i);
+        }
+        return det;
+    }
+    
+    // X = T^-1 * B by forward (lower) or back (upper) substitution, row-oriented
+    static Matrix triangularSolve(Matrix T, Matrix B, boolean lower) {
+        int n = T.getRows(), m = B.getCols();
+        checkDiagonal(T, "Matrix is singular, system has no unique solution");
+        Matrix X = new Matrix(n, m);
+        double[] t = T.array(), b = B.array(), x = X.getArray();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(b, B.getOffset() + i * B.getStride(), x, i * m, m);
+        }
+        for (int s = 0; s < n; s++) {
+            CancellationToken.check();
+            int i = lower ? s : n - 1 - s;
+            int ti = T.getOffset() + i * T.getStride();
+            int xi = i * m;
+            int k0 = lower ? 0 : i + 1, k1 = lower ? i : n;
+            for (int k = k0; k < k1; k++) {
+                double v = t[ti + k];
+                if (v == 0.0) continue;
+                KERNELS.axpy(-v, x, k * m, x, xi, m);
+            }
+            double d = t[ti + i];
+            for (int j = 0; j < m; j++) {
+                x[xi + j] /= d;
+            }
+        }
+        return X;
+    }
+    
+    // T^-1, which has the same triangle: row i is (e_i - sum of t_ik * row k) / t_ii over
+    // the rows k already done, each nonzero only on its own side of the diagonal (n^3 / 3
+    // multiply-adds against about 2n^3 for the LU inverse)
+    static Matrix triangularInverse(Matrix T, boolean lower) {
+        int n = T.getRows();
+        checkDiagonal(T, "Matrix is singular (determinant = 0), cannot compute inverse");
+        Matrix inv = new Matrix(n, n);
+        double[] t = T.array(), x = inv.getArray();
+        for (int s = 0; s < n; s++) {
+            CancellationToken.check();
+            int i = lower ? s : n - 1 - s;
+            int ti = T.getOffset() + i * T.getStride();
+            int xi = i * n;
+            if (lower) {
+                for (int k = 0; k < i; k++) {
+                    double v = t[ti + k];
+                    if (v == 0.0) continue;
+                    KERNELS.axpy(-v, x, k * n, x, xi, k + 1);
+                }
+            } else {
+                for (int k = i + 1; k < n; k++) {
+                    double v = t[ti + k];
+                    if (v == 0.0) continue;
+                    KERNELS.axpy(-v, x, k * n + k, x, xi + k, n - k);
+                }
+            }
+            x[xi + i] += 1.0;
+            double d = t[ti + i];
+            int j0 = lower ? 0 : i, j1 = lower ? i + 1 : n;
+            for (int j = j0; j < j1; j++) {
+                x[xi + j] /= d;
+            }
+        }
+        return inv;
+    }
+    
+    private static void checkDiagonal(Matrix T, String message) {
+        for (int i = 0; i < T.getRows(); i++) {
+            if (Math.abs(T.get(i, i)) < EPSILON) {
+                throw new MatrixException(message);
+            }
+        }
+    }
+    
+    // ---- Banded ----
+    
+    static Matrix bandSolve(Matrix A, MatrixStructure s, Matrix B) {
+        int n = A.getRows(), m = B.getCols();
+        int kl = s.getLowerBandwidth(), ku = s.getUpperBandwidth();
+        int w = 2 * kl + ku + 1;
+        double[] band = packBand(A, kl, ku);
+        Matrix X = new Matrix(n, m);
+        double[] b = B.array(), x = X.getArray();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(b, B.getOffset() + i * B.getStride(), x, i * m, m);
+        }
+        if (bandEliminate(band, n, kl, ku, x, m, EPSILON) == 0.0) {
+            throw new MatrixException("Matrix is singular, system has no unique solution");
+        }
+        // Back substitution with U, whose upper bandwidth is kl + ku
+        for (int i = n - 1; i >= 0; i--) {
+            int ri = i * w + kl;
+            int last = Math.min(n - 1, i + kl + ku);
+            for (int j = i + 1; j <= last; j++) {
+                double u = band[ri + j - i];
+                if (u == 0.0) continue;
+                KERNELS.axpy(-u, x, j * m, x, i * m, m);
+            }
+            double d = band[ri];
+            for (int j = 0; j < m; j++) {
+                x[i * m + j] /= d;
+            }
+        }
+        return X;
+    }
+    
+    static double bandDeterminant(Matrix A, MatrixStructure s) {
+        int n = A.getRows();
+        int kl = s.getLowerBandwidth(), ku = s.getUpperBandwidth();
+        int w = 2 * kl + ku + 1;
+        double[] band = packBand(A, kl, ku);
+        double det = bandEliminate(band, n, kl, ku, null, 0, 0.0);
+        if (det == 0.0) return 0.0;
+        for (int k = 0; k < n; k++) {
+            det *= band[k * w + kl];
+        }
+        return det;
+    }
+    
+    // Row i of the band holds columns i - kl .. i + kl + ku at band[i * w + (j - i + kl)];
+    // the kl diagonals above A's own band take the fill-in from row swaps
+    private static double[] packBand(Matrix A, int kl, int ku) {
+        int n = A.getRows();
+        int w = 2 * kl + ku + 1;
+        double[] band = new double[n * w];
+        double[] a = A.array();
+        for (int i = 0; i < n; i++) {
+            int j0 = Math.max(0, i - kl), j1 = Math.min(n - 1, i + ku);
+            System.arraycopy(a, A.getOffset() + i * A.getStride() + j0, band, i * w + j0 - i + kl, j1 - j0 + 1);
+        }
+        return band;
+    }
+    
+    // Gaussian elimination with partial pivoting inside the band, applying the same row
+    // operations to the n x m block x (if any). Returns the determinant sign of the row
+    // swaps, or 0 when a pivot is below the threshold.
+    private static double bandEliminate(double[] band, int n, int kl, int ku, double[] x, int m, double threshold) {
+        int w = 2 * kl + ku + 1;
+        double sign = 1.0;
+        for (int k = 0; k < n; k++) {
+            if ((k & 63) == 0) {
+                CancellationToken.check();
+            }
+            int last = Math.min(n - 1, k + kl);
+            int p = k;
+            double max = Math.abs(band[k * w + kl]);
+            for (int i = k + 1; i <= last; i++) {
+                double v = Math.abs(band[i * w + k - i + kl]);
+                if (v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+            if (max == 0.0 || max < threshold) return 0.0;
+            
+            // Columns k .. k + kl + ku of the pivot row, all inside its band
+            int width = Math.min(n - 1, k + kl + ku) - k + 1;
+            int rk = k * w + kl;
+            if (p != k) {
+                int rp = p * w + k - p + kl;
+                for (int j = 0; j < width; j++) {
+                    double temp = band[rk + j];
+                    band[rk + j] = band[rp + j];
+                    band[rp + j] = temp;
+                }
+                if (x != null) {
+                    for (int j = 0; j < m; j++) {
+                        double temp = x[k * m + j];
+                        x[k * m + j] = x[p * m + j];
+                        x[p * m + j] = temp;
+                    }
+                }
+                sign = -sign;
+            }
+            
+            double pivot = band[rk];
+            for (int i = k + 1; i <= last; i++) {
+                int ri = i * w + k - i + kl;
+                double factor = band[ri] / pivot;
+                if (factor == 0.0) continue;
+                KERNELS.axpy(-factor, band, rk + 1, band, ri + 1, width - 1);
+                if (x != null) {
+                    KERNELS.axpy(-factor, x, k * m, x, i * m, m);
+                }
+            }
+        }
+        return sign;
+    }
+    
+    // ---- Symmetric products ----
+    
+    // C[n x n] = X[n x k] * Y[k x n] for a product known to be symmetric: each block row
+    // of C is multiplied only up to its diagonal block, then the upper triangle is copied
+    // from the lower one (which also makes C exactly symmetric)
+    static void symmetricProduct(int n, int k, double[] x, int xOff, int xStride,
+                                 double[] y, int yOff, int yStride, double[] c, int cOff, int cStride) {
+        if (n < SYMMETRIC_MIN) {
+            GemmKernel.gemm(n, n, k, x, xOff, xStride, 1, y, yOff, yStride, 1, c, cOff, cStride, false);
+            return;
+        }
+        for (int i0 = 0; i0 < n; i0 += SYMMETRIC_BLOCK) {
+            int i1 = Math.min(n, i0 + SYMMETRIC_BLOCK);
+            GemmKernel.gemm(i1 - i0, i1, k, x, xOff + i0 * xStride, xStride, 1,
+                            y, yOff, yStride, 1, c, cOff + i0 * cStride, cStride, false);
+        }
+        mirrorLower(n, c, cOff, cStride);
+    }
+    
+    // Copy the lower triangle of an n x n block onto its upper triangle. Rows are split
+    // across workers; each writes its own upper part and reads only the lower triangle,
+    // in tiles to keep the column reads in cache.
+    static void mirrorLower(int n, double[] c, int cOff, int cStride) {
+        ParallelExecutor.forRows(n, n / 2, (from, to) -> {
+            for (int i0 = from; i0 < to; i0 += MIRROR_TILE) {
+                int i1 = Math.min(i0 + MIRROR_TILE, to);
+                for (int j0 = i0; j0 < n; j0 += MIRROR_TILE) {
+                    int j1 = Math.min(j0 + MIRROR_TILE, n);
+                    for (int i = i0; i < i1; i++) {
+                        int ci = cOff + i * cStride;
+                        for (int j = Math.max(j0, i + 1); j < j1; j++) {
+                            c[ci + j] = c[cOff + j * cStride + i];
+                        }
+                    }
+                }
+            }
+        });
+    }
+    
+    // A * A for a symmetric A
+    static Matrix symmetricSquare(Matrix A) {
+        int n = A.getRows();
+        Matrix C = new Matrix(n, n);
+        symmetricProduct(n, n, A.array(), A.getOffset(), A.getStride(),
+                         A.array(), A.getOffset(), A.getStride(), C.getArray(), 0, n);
+        return C;
+    }
+}
\ No newline at end of file
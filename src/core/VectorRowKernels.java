@@ -0,0 +1,198 @@
+package core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// RowKernels on the incubating Vector API (AVX2 / AVX-512 on x86).
+// Only loaded reflectively by RowKernels.select(), so a missing module just means scalar code.
+final class VectorRowKernels implements RowKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // The GEMM micro-kernel works on 4-wide slivers
+    private static final VectorSpecies<Double> SPECIES_4 = DoubleVector.SPECIES_256;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    // The float micro-kernel works on 8-wide slivers
+    private static final VectorSpecies<Float> FLOAT_8 = FloatVector.SPECIES_256;
+    
+    VectorRowKernels() {
+        if (SPECIES.vectorBitSize() < 256) {
+            throw new UnsupportedOperationException("Hardware vectors narrower than 256 bits");
+        }
+    }
+    
+    @Override
+    public void add(double[] a, int ai, double[] b, int bi, double[] c, int ci, int len) {
+        int j = 0;
+        for (int bound = SPECIES.loopBound(len); j < bound; j += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, ai + j);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bi + j);
+            va.add(vb).intoArray(c, ci + j);
+        }
+        for (; j < len; j++) {
+            c[ci + j] = a[ai + j] + b[bi + j];
+        }
+    }
+    
+    @Override
+    public void subtract(double[] a, int ai, double[] b, int bi, double[] c, int ci, int len) {
+        int j = 0;
+        for (int bound = SPECIES.loopBound(len); j < bound; j += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, ai + j);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bi + j);
+            va.sub(vb).intoArray(c, ci + j);
+        }
+        for (; j < len; j++) {
+            c[ci + j] = a[ai + j] - b[bi + j];
+        }
+    }
+    
+    @Override
+    public void scale(double[] a, int ai, double s, double[] c, int ci, int len) {
+        int j = 0;
+        for (int bound = SPECIES.loopBound(len); j < bound; j += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, ai + j).mul(s).intoArray(c, ci + j);
+        }
+        for (; j < len; j++) {
+            c[ci + j] = a[ai + j] * s;
+        }
+    }
+    
+    @Override
+    public void axpy(double alpha, double[] x, int xi, double[] y, int yi, int len) {
+        int j = 0;
+        DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+        for (int bound = SPECIES.loopBound(len); j < bound; j += SPECIES.length()) {
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xi + j);
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yi + j);
+            vx.fma(va, vy).intoArray(y, yi + j);
+        }
+        for (; j < len; j++) {
+            y[yi + j] += alpha * x[xi + j];
+        }
+    }
+    
+    @Override
+    public double dot(double[] a, int ai, double[] b, int bi, int len) {
+        int j = 0;
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        for (int bound = SPECIES.loopBound(len); j < bound; j += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, ai + j);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bi + j);
+            acc = va.fma(vb, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; j < len; j++) {
+            sum += a[ai + j] * b[bi + j];
+        }
+        return sum;
+    }
+    
+    // One 4-lane accumulator per row of the tile; each step broadcasts a column of A
+    @Override
+    public void microKernel(int kc, double[] pa, int ap, double[] pb, int bp,
+                            double[] c, int cp, int cStride) {
+        DoubleVector c0 = DoubleVector.zero(SPECIES_4);
+        DoubleVector c1 = DoubleVector.zero(SPECIES_4);
+        DoubleVector c2 = DoubleVector.zero(SPECIES_4);
+        DoubleVector c3 = DoubleVector.zero(SPECIES_4);
+        
+        for (int p = 0; p < kc; p++) {
+            DoubleVector b = DoubleVector.fromArray(SPECIES_4, pb, bp);
+            c0 = b.fma(DoubleVector.broadcast(SPECIES_4, pa[ap]), c0);
+            c1 = b.fma(DoubleVector.broadcast(SPECIES_4, pa[ap + 1]), c1);
+            c2 = b.fma(DoubleVector.broadcast(SPECIES_4, pa[ap + 2]), c2);
+            c3 = b.fma(DoubleVector.broadcast(SPECIES_4, pa[ap + 3]), c3);
+            ap += 4;
+            bp += 4;
+        }
+        
+        int r1 = cp + cStride, r2 = r1 + cStride, r3 = r2 + cStride;
+        DoubleVector.fromArray(SPECIES_4, c, cp).add(c0).intoArray(c, cp);
+        DoubleVector.fromArray(SPECIES_4, c, r1).add(c1).intoArray(c, r1);
+        DoubleVector.fromArray(SPECIES_4, c, r2).add(c2).intoArray(c, r2);
+        DoubleVector.fromArray(SPECIES_4, c, r3).add(c3).intoArray(c, r3);
+    }
+    
+    @Override
+    public void add(float[] a, int ai, float[] b, int bi, float[] c, int ci, int len) {
+        int j = 0;
+        for (int bound = FLOAT_SPECIES.loopBound(len); j < bound; j += FLOAT_SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(FLOAT_SPECIES, a, ai + j);
+            FloatVector vb = FloatVector.fromArray(FLOAT_SPECIES, b, bi + j);
+            va.add(vb).intoArray(c, ci + j);
+        }
+        for (; j < len; j++) {
+            c[ci + j] = a[ai + j] + b[bi + j];
+        }
+    }
+    
+    @Override
+    public void subtract(float[] a, int ai, float[] b, int bi, float[] c, int ci, int len) {
+        int j = 0;
+        for (int bound = FLOAT_SPECIES.loopBound(len); j < bound; j += FLOAT_SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(FLOAT_SPECIES, a, ai + j);
+            FloatVector vb = FloatVector.fromArray(FLOAT_SPECIES, b, bi + j);
+            va.sub(vb).intoArray(c, ci + j);
+        }
+        for (; j < len; j++) {
+            c[ci + j] = a[ai + j] - b[bi + j];
+        }
+    }
+    
+    @Override
+    public void scale(float[] a, int ai, float s, float[] c, int ci, int len) {
+        int j = 0;
+        for (int bound = FLOAT_SPECIES.loopBound(len); j < bound; j += FLOAT_SPECIES.length()) {
+            FloatVector.fromArray(FLOAT_SPECIES, a, ai + j).mul(s).intoArray(c, ci + j);
+        }
+        for (; j < len; j++) {
+            c[ci + j] = a[ai + j] * s;
+        }
+    }
+    
+    @Override
+    public void axpy(float alpha, float[] x, int xi, float[] y, int yi, int len) {
+        int j = 0;
+        FloatVector va = FloatVector.broadcast(FLOAT_SPECIES, alpha);
+        for (int bound = FLOAT_SPECIES.loopBound(len); j < bound; j += FLOAT_SPECIES.length()) {
+            FloatVector vx = FloatVector.fromArray(FLOAT_SPECIES, x, xi + j);
+            FloatVector vy = FloatVector.fromArray(FLOAT_SPECIES, y, yi + j);
+            vx.fma(va, vy).intoArray(y, yi + j);
+        }
+        for (; j < len; j++) {
+            y[yi + j] += alpha * x[xi + j];
+        }
+    }
+    
+    // Same scheme as the double kernel with 8 float lanes per row accumulator
+    @Override
+    public void microKernel(int kc, float[] pa, int ap, float[] pb, int bp,
+                            float[] c, int cp, int cStride) {
+        FloatVector c0 = FloatVector.zero(FLOAT_8);
+        FloatVector c1 = FloatVector.zero(FLOAT_8);
+        FloatVector c2 = FloatVector.zero(FLOAT_8);
+        FloatVector c3 = FloatVector.zero(FLOAT_8);
+        
+        for (int p = 0; p < kc; p++) {
+            FloatVector b = FloatVector.fromArray(FLOAT_8, pb, bp);
+            c0 = b.fma(FloatVector.broadcast(FLOAT_8, pa[ap]), c0);
+            c1 = b.fma(FloatVector.broadcast(FLOAT_8, pa[ap + 1]), c1);
+            c2 = b.fma(FloatVector.broadcast(FLOAT_8, pa[ap + 2]), c2);
+            c3 = b.fma(FloatVector.broadcast(FLOAT_8, pa[ap + 3]), c3);
+            ap += 4;
+            bp += 8;
+        }
+        
+        int r1 = cp + cStride, r2 = r1 + cStride, r3 = r2 + cStride;
+        FloatVector.fromArray(FLOAT_8, c, cp).add(c0).intoArray(c, cp);
+        FloatVector.fromArray(FLOAT_8, c, r1).add(c1).intoArray(c, r1);
+        FloatVector.fromArray(FLOAT_8, c, r2).add(c2).intoArray(c, r2);
+        FloatVector.fromArray(FLOAT_8, c, r3).add(c3).intoArray(c, r3);
+    }
+    
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+}
\ No newline at end of file
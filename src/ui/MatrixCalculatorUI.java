@@ -1,17 +1,45 @@
 package ui;
 
+import core.CancellationToken;
+import core.CsvFile;
 import core.Matrix;
+import core.MatrixFile;
+import core.MatrixMarketFile;
 import core.MatrixOperations;
 import core.MatrixException;
+import core.OperationCancelledException;
+import core.ProgressListener;
+import core.ResultCache;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
 
 public class MatrixCalculatorUI extends JFrame {
+    // Operations still running after this many seconds are cancelled
+    private static final long TIMEOUT_SECONDS = Long.getLong("matrix.ui.timeout", 300);
+    // Memory budget of the result cache, in megabytes
+    private static final long CACHE_MB = Long.getLong("matrix.ui.cacheMB", 256);
+    
     private MatrixInputPanel matrixAPanel;
     private MatrixInputPanel matrixBPanel;
     private OperationPanel operationPanel;
     private MatrixDisplayPanel resultPanel;
+    // Last matrix-valued result, offered by File > Save
+    private Matrix lastResult;
+    private JFileChooser fileChooser;
+    private JFileChooser textChooser;
+    private JLabel statusBar;
+    // Token and elapsed-time ticker of the operation running in the background, if any
+    private CancellationToken runningToken;
+    private Timer progressTimer;
+    // Results of earlier operations on the same inputs, so pressing Calculate again is free
+    private final ResultCache<Computation> resultCache = new ResultCache<>(CACHE_MB << 20,
+        c -> (c.result != null ? ResultCache.sizeOf(c.result) : 0) + 2L * c.text.length() + 64);
     
     public MatrixCalculatorUI() {
         initUI();
@@ -47,6 +75,11 @@ public class MatrixCalculatorUI extends JFrame {
                 performOperation(operation, scalar, exponent);
             }
             
+            @Override
+            public void onCancel() {
+                cancelOperation();
+            }
+            
             @Override
             public void onClear() {
                 clearAll();
@@ -90,7 +123,7 @@ public class MatrixCalculatorUI extends JFrame {
         mainPanel.add(matrixBPanel, gbc);
         
         // Add status bar
-        JLabel statusBar = new JLabel(" Ready");
+        statusBar = new JLabel(" Ready");
         statusBar.setBorder(BorderFactory.createEtchedBorder());
         
         // Add components to frame
@@ -114,10 +147,27 @@ public class MatrixCalculatorUI extends JFrame {
         JMenuItem newItem = new JMenuItem("New");
         newItem.addActionListener(e -> clearAll());
         
+        JMenuItem openItem = new JMenuItem("Open...");
+        openItem.addActionListener(e -> openMatrix());
+        
+        JMenuItem saveItem = new JMenuItem("Save...");
+        saveItem.addActionListener(e -> saveMatrix());
+        
+        JMenuItem importItem = new JMenuItem("Import...");
+        importItem.addActionListener(e -> importMatrix());
+        
+        JMenuItem exportItem = new JMenuItem("Export...");
+        exportItem.addActionListener(e -> exportMatrix());
+        
         JMenuItem exitItem = new JMenuItem("Exit");
         exitItem.addActionListener(e -> System.exit(0));
         
         fileMenu.add(newItem);
+        fileMenu.add(openItem);
+        fileMenu.add(saveItem);
+        fileMenu.addSeparator();
+        fileMenu.add(importItem);
+        fileMenu.add(exportItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
         
@@ -158,91 +208,417 @@ public class MatrixCalculatorUI extends JFrame {
         return menuBar;
     }
     
+    // Matrix result (null for scalar operations) and the text shown with it: a summary
+    // line above the result grid, or the whole text for scalar results
+    private static final class Computation {
+        final Matrix result;
+        final String text;
+        
+        Computation(Matrix result, String text) {
+            this.result = result;
+            this.text = text;
+        }
+    }
+    
+    // Run the operation on a worker thread; the status bar shows the elapsed time and
+    // Cancel (or the timeout) stops the kernels at their next cancellation check
     private void performOperation(String operation, double scalar, int exponent) {
-        try {
-            Matrix A = new Matrix(matrixAPanel.getMatrixData());
-            Matrix B = null;
+        if (runningToken != null) {
+            return;
+        }
+        // The tables' own matrices, not copies
+        Object[] operands = operands(operation, scalar, exponent);
+        Matrix A = (Matrix) operands[0];
+        Matrix b = operands.length > 1 && operands[1] instanceof Matrix ? (Matrix) operands[1] : null;
+        
+        CancellationToken token = new CancellationToken(TIMEOUT_SECONDS * 1000);
+        long start = System.nanoTime();
+        SwingWorker<Computation, Void> worker = new SwingWorker<>() {
+            // Whether the result came from the cache
+            private boolean cached;
             
-            if (!operation.contains("Transpose") && 
-                !operation.contains("Inverse") && 
-                !operation.contains("Determinant") &&
-                !operation.contains("Trace")) {
-                B = new Matrix(matrixBPanel.getMatrixData());
+            @Override
+            protected Computation doInBackground() {
+                // Keyed by the inputs the operation actually uses
+                ResultCache.Key key = ResultCache.key(operation, operands);
+                Computation computation = resultCache.get(key);
+                cached = computation != null;
+                if (!cached) {
+                    computation = token.call(() -> compute(operation, A, b, scalar, exponent));
+                    resultCache.put(key, computation);
+                }
+                return computation;
             }
             
-            Matrix result = null;
-            double doubleResult = 0;
-            String resultStr = "";
-            
-            switch (operation) {
-                case "Addition (A + B)":
-                    result = MatrixOperations.add(A, B);
-                    resultStr = result.toString();
-                    break;
-                    
-                case "Subtraction (A - B)":
-                    result = MatrixOperations.subtract(A, B);
-                    resultStr = result.toString();
-                    break;
-                    
-                case "Multiplication (A × B)":
-                    result = MatrixOperations.multiply(A, B);
-                    resultStr = result.toString();
-                    break;
-                    
-                case "Scalar Multiplication":
-                    result = MatrixOperations.scalarMultiply(A, scalar);
-                    resultStr = "Scalar: " + scalar + "\n\nResult:\n" + result.toString();
-                    break;
-                    
-                case "Transpose (Aᵀ)":
-                    result = MatrixOperations.transpose(A);
-                    resultStr = "Original:\n" + A.toString() + "\nTranspose:\n" + result.toString();
-                    break;
-                    
-                case "Inverse (A⁻¹)":
-                    result = MatrixOperations.inverse(A);
-                    resultStr = "Original:\n" + A.toString() + 
-                               "\nInverse:\n" + result.toString() +
-                               "\n\nVerification (A × A⁻¹):\n" + 
-                               MatrixOperations.multiply(A, result).toString();
-                    break;
-                    
-                case "Dot Product":
-                    doubleResult = MatrixOperations.dotProduct(A, B);
-                    resultStr = String.format("Dot Product: %.4f", doubleResult);
-                    break;
-                    
-                case "Determinant (det(A))":
-                    doubleResult = MatrixOperations.determinant(A);
-                    resultStr = String.format("Determinant: %.4f", doubleResult);
-                    break;
-                    
-                case "Power (Aⁿ)":
-                    result = MatrixOperations.power(A, exponent);
-                    resultStr = "Exponent: " + exponent + "\n\nResult:\n" + result.toString();
-                    break;
-                    
-                case "Trace":
-                    doubleResult = MatrixOperations.trace(A);
-                    resultStr = String.format("Trace: %.4f", doubleResult);
-                    break;
+            @Override
+            protected void done() {
+                finishOperation();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                try {
+                    Computation computation = get();
+                    lastResult = computation.result;
+                    if (computation.result != null) {
+                        resultPanel.displayMatrix(operation, computation.text, computation.result);
+                    } else {
+                        resultPanel.displayResult(operation, computation.text);
+                    }
+                    statusBar.setText(String.format(" %s done in %.2f s%s", operation, seconds, cached
+                        ? String.format(" (cached: %d hits, %d misses)", resultCache.getHitCount(), resultCache.getMissCount())
+                        : ""));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof OperationCancelledException) {
+                        resultPanel.displayError(operation, cause.getMessage());
+                        statusBar.setText(String.format(" %s stopped after %.1f s", operation, seconds));
+                    } else if (cause instanceof MatrixException) {
+                        resultPanel.displayError(operation, cause.getMessage());
+                        statusBar.setText(" Ready");
+                    } else {
+                        resultPanel.displayError(operation, "Unexpected error: " + cause.getMessage());
+                        statusBar.setText(" Ready");
+                        cause.printStackTrace();
+                    }
+                }
+            }
+        };
+        
+        runningToken = token;
+        operationPanel.setRunning(true);
+        // The operation reads the tables' own matrices, so hold edits until it finishes
+        matrixAPanel.setEditable(false);
+        matrixBPanel.setEditable(b == null);
+        statusBar.setText(" " + operation + "...");
+        progressTimer = new Timer(100, e -> statusBar.setText(String.format(" %s... %.1f s%s", operation,
+            (System.nanoTime() - start) / 1e9, token.isCancelled() ? " (cancelling)" : "")));
+        progressTimer.start();
+        worker.execute();
+    }
+    
+    // The inputs compute() reads for an operation, A first; they are also the cache key,
+    // so B is only fetched for the operations that use it
+    private Object[] operands(String operation, double scalar, int exponent) {
+        Matrix A = matrixAPanel.getMatrix();
+        switch (operation) {
+            case "Addition (A + B)":
+            case "Subtraction (A - B)":
+            case "Multiplication (A × B)":
+            case "Solve System (AX = B)":
+            case "Dot Product":
+                return new Object[] {A, matrixBPanel.getMatrix()};
+            case "Scalar Multiplication":
+                return new Object[] {A, scalar};
+            case "Power (Aⁿ)":
+                return new Object[] {A, exponent};
+            default:
+                return new Object[] {A};
+        }
+    }
+    
+    private void finishOperation() {
+        progressTimer.stop();
+        progressTimer = null;
+        runningToken = null;
+        operationPanel.setRunning(false);
+        matrixAPanel.setEditable(true);
+        matrixBPanel.setEditable(true);
+    }
+    
+    private void cancelOperation() {
+        if (runningToken != null) {
+            runningToken.cancel();
+        }
+    }
+    
+    // Runs on the worker thread. Matrix results go to the result grid with a one-line
+    // summary; verifications are reported as the largest residual entry.
+    private static Computation compute(String operation, Matrix A, Matrix B, double scalar, int exponent) {
+        Matrix result = null;
+        double doubleResult = 0;
+        String resultStr = "";
+        
+        switch (operation) {
+            case "Addition (A + B)":
+                result = MatrixOperations.add(A, B);
+                resultStr = "Result: " + shape(result);
+                break;
+                
+            case "Subtraction (A - B)":
+                result = MatrixOperations.subtract(A, B);
+                resultStr = "Result: " + shape(result);
+                break;
+                
+            case "Multiplication (A × B)":
+                result = MatrixOperations.multiply(A, B);
+                resultStr = "Result: " + shape(result);
+                break;
+                
+            case "Scalar Multiplication":
+                result = MatrixOperations.scalarMultiply(A, scalar);
+                resultStr = "Scalar: " + scalar + "    Result: " + shape(result);
+                break;
+                
+            case "Transpose (Aᵀ)":
+                result = MatrixOperations.transpose(A);
+                resultStr = "Transpose: " + shape(result);
+                break;
+                
+            case "Inverse (A⁻¹)":
+                result = MatrixOperations.inverse(A);
+                resultStr = "Inverse: " + shape(result) + "    Verification: max |A × A⁻¹ - I| = " +
+                            String.format("%.3e", maxDifference(MatrixOperations.multiply(A, result), null));
+                break;
+                
+            case "Solve System (AX = B)":
+                result = MatrixOperations.solve(A, B);
+                resultStr = "Solution X: " + shape(result) + "    Verification: max |A × X - B| = " +
+                            String.format("%.3e", maxDifference(MatrixOperations.multiply(A, result), B));
+                break;
+                
+            case "Dot Product":
+                doubleResult = MatrixOperations.dotProduct(A, B);
+                resultStr = String.format("Dot Product: %.4f", doubleResult);
+                break;
+                
+            case "Determinant (det(A))":
+                doubleResult = MatrixOperations.determinant(A);
+                resultStr = String.format("Determinant: %.4f", doubleResult);
+                break;
+                
+            case "Power (Aⁿ)":
+                result = MatrixOperations.power(A, exponent);
+                resultStr = "Exponent: " + exponent + "    Result: " + shape(result);
+                break;
+                
+            case "Trace":
+                doubleResult = MatrixOperations.trace(A);
+                resultStr = String.format("Trace: %.4f", doubleResult);
+                break;
+        }
+        
+        return new Computation(result, resultStr);
+    }
+    
+    private static String shape(Matrix M) {
+        return M.getRows() + " x " + M.getCols();
+    }
+    
+    // Largest |P - E| entry, with E = identity when null
+    private static double maxDifference(Matrix P, Matrix E) {
+        double max = 0;
+        for (int i = 0; i < P.getRows(); i++) {
+            for (int j = 0; j < P.getCols(); j++) {
+                double expected = E != null ? E.get(i, j) : (i == j ? 1.0 : 0.0);
+                max = Math.max(max, Math.abs(P.get(i, j) - expected));
             }
-            
-            resultPanel.displayResult(operation, resultStr);
-            
-        } catch (MatrixException e) {
-            resultPanel.displayError(operation, e.getMessage());
-        } catch (Exception e) {
-            resultPanel.displayError(operation, "Unexpected error: " + e.getMessage());
-            e.printStackTrace();
         }
+        return max;
     }
     
     private void clearAll() {
+        cancelOperation();
         matrixAPanel.setMatrixData(new double[][]{{0, 0}, {0, 0}});
         matrixBPanel.setMatrixData(new double[][]{{0, 0}, {0, 0}});
         resultPanel.clear();
+        lastResult = null;
+    }
+    
+    private JFileChooser getFileChooser() {
+        if (fileChooser == null) {
+            fileChooser = new JFileChooser();
+            fileChooser.setFileFilter(new FileNameExtensionFilter(
+                "Matrix files (*." + MatrixFile.EXTENSION + ")", MatrixFile.EXTENSION));
+        }
+        return fileChooser;
+    }
+    
+    // Load a .mtxb file into Matrix A or B
+    private void openMatrix() {
+        JFileChooser chooser = getFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        String[] targets = {"Matrix A", "Matrix B"};
+        int target = JOptionPane.showOptionDialog(this, "Load the file into:", "Open Matrix",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, targets, targets[0]);
+        if (target < 0) {
+            return;
+        }
+        try {
+            Matrix loaded = Matrix.load(chooser.getSelectedFile().toPath());
+            MatrixInputPanel panel = target == 0 ? matrixAPanel : matrixBPanel;
+            panel.setMatrix(loaded);
+        } catch (IOException | MatrixException e) {
+            JOptionPane.showMessageDialog(this, "Could not open matrix:\n" + e.getMessage(),
+                                          "Open Matrix", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    // Save Matrix A, Matrix B or the last result as a .mtxb file
+    private void saveMatrix() {
+        String[] sources = lastResult != null
+            ? new String[]{"Matrix A", "Matrix B", "Result"}
+            : new String[]{"Matrix A", "Matrix B"};
+        int source = JOptionPane.showOptionDialog(this, "Matrix to save:", "Save Matrix",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, sources, sources[0]);
+        if (source < 0) {
+            return;
+        }
+        JFileChooser chooser = getFileChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        if (!file.getName().contains(".")) {
+            file = new File(file.getPath() + "." + MatrixFile.EXTENSION);
+        }
+        try {
+            Matrix matrix;
+            if (source == 0) {
+                matrix = matrixAPanel.getMatrix();
+            } else if (source == 1) {
+                matrix = matrixBPanel.getMatrix();
+            } else {
+                matrix = lastResult;
+            }
+            matrix.save(file.toPath());
+        } catch (IOException | MatrixException e) {
+            JOptionPane.showMessageDialog(this, "Could not save matrix:\n" + e.getMessage(),
+                                          "Save Matrix", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private JFileChooser getTextChooser() {
+        if (textChooser == null) {
+            textChooser = new JFileChooser();
+            textChooser.setFileFilter(new FileNameExtensionFilter(
+                "CSV and Matrix Market files (*.csv, *.mtx)", "csv", "mtx"));
+        }
+        return textChooser;
+    }
+    
+    private static boolean isMatrixMarket(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".mtx");
+    }
+    
+    private static int percent(long done, long total) {
+        return total <= 0 ? 0 : (int) Math.min(100, done * 100 / total);
+    }
+    
+    // Stream a .csv or .mtx file into Matrix A or B on a worker thread, with progress
+    // in the status bar
+    private void importMatrix() {
+        JFileChooser chooser = getTextChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        String[] targets = {"Matrix A", "Matrix B"};
+        int target = JOptionPane.showOptionDialog(this, "Import the file into:", "Import Matrix",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, targets, targets[0]);
+        if (target < 0) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+        MatrixInputPanel panel = target == 0 ? matrixAPanel : matrixBPanel;
+        String name = path.getFileName().toString();
+        
+        SwingWorker<Matrix, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Matrix doInBackground() throws Exception {
+                ProgressListener listener = (done, total) -> setProgress(percent(done, total));
+                return isMatrixMarket(path) ? MatrixMarketFile.readDense(path, listener)
+                                            : CsvFile.read(path, listener);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    Matrix loaded = get();
+                    panel.setMatrix(loaded);
+                    statusBar.setText(" Imported " + name + " (" + loaded.getRows() + " x " + loaded.getCols() + ")");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    statusBar.setText(" Ready");
+                    JOptionPane.showMessageDialog(MatrixCalculatorUI.this, "Could not import matrix:\n" +
+                        e.getCause().getMessage(), "Import Matrix", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                statusBar.setText(" Importing " + name + "... " + e.getNewValue() + "%");
+            }
+        });
+        statusBar.setText(" Importing " + name + "...");
+        worker.execute();
+    }
+    
+    // Stream Matrix A, Matrix B or the last result to .csv (default) or .mtx on a worker thread
+    private void exportMatrix() {
+        String[] sources = lastResult != null
+            ? new String[]{"Matrix A", "Matrix B", "Result"}
+            : new String[]{"Matrix A", "Matrix B"};
+        int source = JOptionPane.showOptionDialog(this, "Matrix to export:", "Export Matrix",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, sources, sources[0]);
+        if (source < 0) {
+            return;
+        }
+        JFileChooser chooser = getTextChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        if (!file.getName().contains(".")) {
+            file = new File(file.getPath() + ".csv");
+        }
+        // Snapshot the tables, which stay editable while the file is written; the last
+        // result is never modified, so it is written as is
+        Matrix matrix;
+        if (source == 0) {
+            matrix = matrixAPanel.getMatrix().copy();
+        } else if (source == 1) {
+            matrix = matrixBPanel.getMatrix().copy();
+        } else {
+            matrix = lastResult;
+        }
+        Path path = file.toPath();
+        String name = path.getFileName().toString();
+        
+        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                ProgressListener listener = (done, total) -> setProgress(percent(done, total));
+                if (isMatrixMarket(path)) {
+                    MatrixMarketFile.write(matrix, path, listener);
+                } else {
+                    CsvFile.write(matrix, path, listener);
+                }
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    statusBar.setText(" Exported " + name);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    statusBar.setText(" Ready");
+                    JOptionPane.showMessageDialog(MatrixCalculatorUI.this, "Could not export matrix:\n" +
+                        e.getCause().getMessage(), "Export Matrix", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                statusBar.setText(" Exporting " + name + "... " + e.getNewValue() + "%");
+            }
+        });
+        statusBar.setText(" Exporting " + name + "...");
+        worker.execute();
     }
     
     private void loadExample(String example) {
@@ -290,6 +666,7 @@ public class MatrixCalculatorUI extends JFrame {
                          "- Scalar Multiplication\n" +
                          "- Transpose\n" +
                          "- Inverse\n" +
+                         "- Solve System (AX = B)\n" +
                          "- Dot Product\n" +
                          "- Determinant\n" +
                          "- Matrix Power\n" +
@@ -1,12 +1,61 @@
 package ui;
 
+import core.FixedFormat;
+import core.Matrix;
+
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 
 public class MatrixDisplayPanel extends JPanel {
+    private static final String TEXT_CARD = "text";
+    private static final String GRID_CARD = "grid";
+    // Up to this many columns the grid fits the panel width; wider results scroll
+    private static final int FIT_COLUMNS = 8;
+    
     private JTextArea resultArea;
     private JLabel operationLabel;
+    private JPanel cards;
+    private JLabel summaryLabel;
+    private JTable resultTable;
+    private ResultTableModel resultModel;
+    
+    // Read-only view of a result matrix; cells are formatted only when JTable paints them
+    private static final class ResultTableModel extends AbstractTableModel {
+        private Matrix matrix;
+        
+        void setMatrix(Matrix matrix) {
+            this.matrix = matrix;
+            fireTableStructureChanged();
+        }
+        
+        @Override
+        public int getRowCount() {
+            return matrix == null ? 0 : matrix.getRows();
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return matrix == null ? 0 : matrix.getCols();
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return String.valueOf(column + 1);
+        }
+        
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return Double.class;
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            return matrix.get(row, column);
+        }
+    }
     
     public MatrixDisplayPanel() {
         initComponents();
@@ -32,23 +81,71 @@ public class MatrixDisplayPanel extends JPanel {
         
         JScrollPane scrollPane = new JScrollPane(resultArea);
         scrollPane.setPreferredSize(new Dimension(400, 300));
-        add(scrollPane, BorderLayout.CENTER);
+        
+        // Matrix results: a summary line above a grid that formats only the visible cells
+        resultModel = new ResultTableModel();
+        resultTable = new JTable(resultModel);
+        resultTable.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        resultTable.setRowHeight(24);
+        resultTable.setCellSelectionEnabled(true);
+        resultTable.getTableHeader().setReorderingAllowed(false);
+        DefaultTableCellRenderer numberRenderer = new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value instanceof Double ? FixedFormat.format((Double) value, 4) : "");
+            }
+        };
+        numberRenderer.setHorizontalAlignment(JLabel.RIGHT);
+        resultTable.setDefaultRenderer(Double.class, numberRenderer);
+        
+        summaryLabel = new JLabel();
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(0, 2, 4, 2));
+        JPanel gridPanel = new JPanel(new BorderLayout());
+        gridPanel.add(summaryLabel, BorderLayout.NORTH);
+        gridPanel.add(new JScrollPane(resultTable), BorderLayout.CENTER);
+        
+        cards = new JPanel(new CardLayout());
+        cards.add(scrollPane, TEXT_CARD);
+        cards.add(gridPanel, GRID_CARD);
+        add(cards, BorderLayout.CENTER);
+    }
+    
+    private void showCard(String card) {
+        ((CardLayout) cards.getLayout()).show(cards, card);
     }
     
     public void displayResult(String operation, String result) {
         operationLabel.setText("Operation: " + operation);
         resultArea.setText(result);
         resultArea.setCaretPosition(0); // Scroll to top
+        showCard(TEXT_CARD);
+    }
+    
+    // Show a matrix result in the grid (no copy, nothing formatted up front)
+    public void displayMatrix(String operation, String summary, Matrix matrix) {
+        operationLabel.setText("Operation: " + operation);
+        summaryLabel.setText(summary);
+        resultModel.setMatrix(matrix);
+        resultTable.setAutoResizeMode(matrix.getCols() > FIT_COLUMNS
+                                      ? JTable.AUTO_RESIZE_OFF : JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS);
+        for (int i = 0; i < matrix.getCols(); i++) {
+            resultTable.getColumnModel().getColumn(i).setPreferredWidth(100);
+        }
+        resultTable.scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+        showCard(GRID_CARD);
     }
     
     public void clear() {
         operationLabel.setText("Operation: None");
         resultArea.setText("");
+        resultModel.setMatrix(null);
+        showCard(TEXT_CARD);
     }
     
     public void displayError(String operation, String error) {
         operationLabel.setText("Operation: " + operation + " - ERROR");
         resultArea.setText("❌ Error: " + error);
         resultArea.setCaretPosition(0);
+        showCard(TEXT_CARD);
     }
 }
\ No newline at end of file
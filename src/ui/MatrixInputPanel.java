@@ -1,9 +1,10 @@
 package ui;
 
+import core.Matrix;
+
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 // import javax.swing.table.TableCellEditor;
 
 import java.awt.*;
@@ -11,8 +12,16 @@ import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 
 public class MatrixInputPanel extends JPanel {
+    // Largest row/column count offered by the spinners
+    private static final int MAX_SIZE = 10_000;
+    // Beyond this many columns the table scrolls horizontally instead of squeezing them
+    private static final int FIT_COLUMNS = 10;
+    
     private JTable matrixTable;
-    private DefaultTableModel tableModel;
+    private MatrixTableModel tableModel;
+    private JButton resizeButton;
+    private JButton randomButton;
+    private JButton clearButton;
     private JLabel dimensionsLabel;
     private JSpinner rowsSpinner;
     private JSpinner colsSpinner;
@@ -36,61 +45,30 @@ public class MatrixInputPanel extends JPanel {
         JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         
         controlPanel.add(new JLabel("Rows:"));
-        rowsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 10, 1));
+        rowsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, MAX_SIZE, 1));
         controlPanel.add(rowsSpinner);
         
         controlPanel.add(new JLabel("Cols:"));
-        colsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 10, 1));
+        colsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, MAX_SIZE, 1));
         controlPanel.add(colsSpinner);
         
-        JButton resizeButton = new JButton("Resize");
+        resizeButton = new JButton("Resize");
         resizeButton.addActionListener(e -> resizeMatrix());
         controlPanel.add(resizeButton);
         
-        JButton randomButton = new JButton("Random Fill");
+        randomButton = new JButton("Random Fill");
         randomButton.addActionListener(e -> fillRandom());
         controlPanel.add(randomButton);
         
-        JButton clearButton = new JButton("Clear");
+        clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearMatrix());
         controlPanel.add(clearButton);
         
         add(controlPanel, BorderLayout.NORTH);
         
         // Matrix table
-        // Matrix table with custom model for better number handling
-    tableModel = new DefaultTableModel(2, 2) {
-        @Override
-        public Class<?> getColumnClass(int columnIndex) {
-            return Double.class;
-        }
-        
-        @Override
-        public void setValueAt(Object value, int row, int column) {
-            // Handle string input and convert to Double
-            if (value instanceof String) {
-                String str = ((String) value).trim();
-                if (str.isEmpty()) {
-                    super.setValueAt(0.0, row, column);
-                } else {
-                    try {
-                        // Remove leading zeros (fixes 0.01 issue)
-                        if (str.startsWith("0") && str.length() > 1 && !str.startsWith("0.")) {
-                            str = str.replaceFirst("^0+", "");
-                            if (str.isEmpty()) str = "0";
-                        }
-                        double num = Double.parseDouble(str);
-                        super.setValueAt(num, row, column);
-                    } catch (NumberFormatException e) {
-                        // Keep old value if invalid
-                        super.setValueAt(getValueAt(row, column), row, column);
-                    }
-                }
-            } else {
-                super.setValueAt(value, row, column);
-            }
-        }
-    };
+        // Matrix table backed by the matrix storage (see MatrixTableModel)
+    tableModel = new MatrixTableModel(new Matrix(2, 2));
 
     matrixTable = new JTable(tableModel);
 
@@ -153,11 +131,8 @@ public class MatrixInputPanel extends JPanel {
         }
     };
 
-    // Apply the renderer to all columns
-    for (int i = 0; i < matrixTable.getColumnCount(); i++) {
-        matrixTable.getColumnModel().getColumn(i).setCellRenderer(centerRenderer);
-        matrixTable.getColumnModel().getColumn(i).setPreferredWidth(70);
-    }
+    // Apply the renderer to all columns (a default survives column rebuilds on resize)
+    matrixTable.setDefaultRenderer(Double.class, centerRenderer);
 
     // ========== FIX 5: Better table header ==========
     matrixTable.getTableHeader().setReorderingAllowed(false);
@@ -206,9 +181,7 @@ public class MatrixInputPanel extends JPanel {
     });
         
         // Set column widths
-        for (int i = 0; i < tableModel.getColumnCount(); i++) {
-            matrixTable.getColumnModel().getColumn(i).setPreferredWidth(60);
-        }
+        configureColumns();
         
         JScrollPane scrollPane = new JScrollPane(matrixTable);
         add(scrollPane, BorderLayout.CENTER);
@@ -217,95 +190,93 @@ public class MatrixInputPanel extends JPanel {
         add(dimensionsLabel, BorderLayout.SOUTH);
     }
     
+    private void configureColumns() {
+        matrixTable.setAutoResizeMode(tableModel.getColumnCount() > FIT_COLUMNS
+                                      ? JTable.AUTO_RESIZE_OFF : JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS);
+        for (int i = 0; i < tableModel.getColumnCount(); i++) {
+            matrixTable.getColumnModel().getColumn(i).setPreferredWidth(60);
+        }
+    }
+    
     private void resizeMatrix() {
         int newRows = (int) rowsSpinner.getValue();
         int newCols = (int) colsSpinner.getValue();
         
-        // Save current data
-        double[][] oldData = getMatrixData();
-        int oldRows = tableModel.getRowCount();
-        int oldCols = tableModel.getColumnCount();
-        
-        // Resize table
-        tableModel.setRowCount(newRows);
-        tableModel.setColumnCount(newCols);
-        
-        // Restore data where possible
-        for (int i = 0; i < Math.min(newRows, oldRows); i++) {
-            for (int j = 0; j < Math.min(newCols, oldCols); j++) {
-                tableModel.setValueAt(oldData[i][j], i, j);
+        // Keep the overlapping block, new cells are 0
+        Matrix old = tableModel.getMatrix();
+        Matrix resized = new Matrix(newRows, newCols);
+        for (int i = 0; i < Math.min(newRows, old.getRows()); i++) {
+            for (int j = 0; j < Math.min(newCols, old.getCols()); j++) {
+                resized.set(i, j, old.get(i, j));
             }
         }
-        
-        // Fill new cells with 0
-        for (int i = oldRows; i < newRows; i++) {
-            for (int j = 0; j < newCols; j++) {
-                tableModel.setValueAt(0.0, i, j);
-            }
-        }
-        for (int i = 0; i < Math.min(newRows, oldRows); i++) {
-            for (int j = oldCols; j < newCols; j++) {
-                tableModel.setValueAt(0.0, i, j);
-            }
-        }
-        
-        dimensionsLabel.setText(newRows + " x " + newCols + " Matrix");
+        setMatrix(resized);
     }
     
     private void fillRandom() {
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            for (int j = 0; j < tableModel.getColumnCount(); j++) {
-                double value = Math.round((Math.random() * 20 - 10) * 100.0) / 100.0;
-                tableModel.setValueAt(value, i, j);
+        Matrix matrix = tableModel.getMatrix();
+        for (int i = 0; i < matrix.getRows(); i++) {
+            for (int j = 0; j < matrix.getCols(); j++) {
+                matrix.set(i, j, Math.round((Math.random() * 20 - 10) * 100.0) / 100.0);
             }
         }
+        tableModel.fireTableDataChanged();
     }
     
     private void clearMatrix() {
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            for (int j = 0; j < tableModel.getColumnCount(); j++) {
-                tableModel.setValueAt(0.0, i, j);
+        stopEditing();
+        Matrix matrix = tableModel.getMatrix();
+        for (int i = 0; i < matrix.getRows(); i++) {
+            for (int j = 0; j < matrix.getCols(); j++) {
+                matrix.set(i, j, 0.0);
             }
         }
+        tableModel.fireTableDataChanged();
     }
     
-    public double[][] getMatrixData() {
-        int rows = tableModel.getRowCount();
-        int cols = tableModel.getColumnCount();
-        double[][] data = new double[rows][cols];
-        
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                Object value = tableModel.getValueAt(i, j);
-                if (value instanceof Number) {
-                    data[i][j] = ((Number) value).doubleValue();
-                } else if (value instanceof String) {
-                    try {
-                        data[i][j] = Double.parseDouble((String) value);
-                    } catch (NumberFormatException e) {
-                        data[i][j] = 0.0;
-                    }
-                } else {
-                    data[i][j] = 0.0;
-                }
-            }
+    // Commit a cell that is still being edited
+    private void stopEditing() {
+        if (matrixTable.isEditing()) {
+            matrixTable.getCellEditor().stopCellEditing();
         }
-        return data;
     }
     
-    public void setMatrixData(double[][] data) {
-        tableModel.setRowCount(data.length);
-        tableModel.setColumnCount(data[0].length);
-        
-        for (int i = 0; i < data.length; i++) {
-            for (int j = 0; j < data[i].length; j++) {
-                tableModel.setValueAt(data[i][j], i, j);
-            }
+    // The matrix behind the table itself (no copy); edits made later show up in it
+    public Matrix getMatrix() {
+        stopEditing();
+        return tableModel.getMatrix();
+    }
+    
+    // Show this matrix in the table without copying it
+    public void setMatrix(Matrix matrix) {
+        if (matrixTable.isEditing()) {
+            matrixTable.getCellEditor().cancelCellEditing();
         }
-        
-        rowsSpinner.setValue(data.length);
-        colsSpinner.setValue(data[0].length);
-        dimensionsLabel.setText(data.length + " x " + data[0].length + " Matrix");
+        boolean reshaped = matrix.getRows() != tableModel.getRowCount() || matrix.getCols() != tableModel.getColumnCount();
+        tableModel.setMatrix(matrix);
+        if (reshaped) {
+            configureColumns();
+        }
+        rowsSpinner.setValue(matrix.getRows());
+        colsSpinner.setValue(matrix.getCols());
+        dimensionsLabel.setText(matrix.getRows() + " x " + matrix.getCols() + " Matrix");
+    }
+    
+    public double[][] getMatrixData() {
+        return getMatrix().getData();
+    }
+    
+    public void setMatrixData(double[][] data) {
+        setMatrix(new Matrix(data));
+    }
+    
+    // Lock the table and its buttons while an operation reads the matrix in the background
+    public void setEditable(boolean editable) {
+        stopEditing();
+        tableModel.setEditable(editable);
+        resizeButton.setEnabled(editable);
+        randomButton.setEnabled(editable);
+        clearButton.setEnabled(editable);
     }
     
     public int getRows() {
@@ -0,0 +1,86 @@
+package ui;
+
+import core.Matrix;
+
+import javax.swing.table.AbstractTableModel;
+
+// Table model backed directly by a Matrix: cells are read from and written to its
+// primitive storage, so nothing is boxed except the cells JTable is currently painting
+// and getMatrix() hands the matrix over without copying.
+public class MatrixTableModel extends AbstractTableModel {
+    private Matrix matrix;
+    private boolean editable = true;
+    
+    public MatrixTableModel(Matrix matrix) {
+        this.matrix = matrix;
+    }
+    
+    public Matrix getMatrix() {
+        return matrix;
+    }
+    
+    // Adopt another matrix (no copy); fires a structure change only when the shape changes
+    public void setMatrix(Matrix matrix) {
+        boolean reshaped = matrix.getRows() != this.matrix.getRows() || matrix.getCols() != this.matrix.getCols();
+        this.matrix = matrix;
+        if (reshaped) {
+            fireTableStructureChanged();
+        } else {
+            fireTableDataChanged();
+        }
+    }
+    
+    // Cells are read-only while an operation is reading the matrix in the background
+    public void setEditable(boolean editable) {
+        this.editable = editable;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return matrix.getRows();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return matrix.getCols();
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return Double.class;
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return editable;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        return matrix.get(row, column);
+    }
+    
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        double number;
+        if (value instanceof Number) {
+            number = ((Number) value).doubleValue();
+        } else if (value instanceof String) {
+            String str = ((String) value).trim();
+            if (str.isEmpty()) {
+                number = 0.0;
+            } else {
+                try {
+                    number = Double.parseDouble(str);
+                } catch (NumberFormatException e) {
+                    // Keep old value if invalid
+                    return;
+                }
+            }
+        } else {
+            return;
+        }
+        matrix.set(row, column, number);
+        fireTableCellUpdated(row, column);
+    }
+}
\ No newline at end of file
@@ -6,6 +6,7 @@ import java.awt.*;
 public class OperationPanel extends JPanel {
     private JComboBox<String> operationCombo;
     private JButton calculateButton;
+    private JButton cancelButton;
     private JButton clearButton;
     private JSpinner scalarSpinner;
     private JSpinner exponentSpinner;
@@ -16,6 +17,7 @@ public class OperationPanel extends JPanel {
     
     public interface OperationListener {
         void onOperationSelected(String operation, double scalar, int exponent);
+        void onCancel();
         void onClear();
     }
     
@@ -42,6 +44,7 @@ public class OperationPanel extends JPanel {
             "Scalar Multiplication",
             "Transpose (Aᵀ)",
             "Inverse (A⁻¹)",
+            "Solve System (AX = B)",
             "Dot Product",
             "Determinant (det(A))",
             "Power (Aⁿ)",
@@ -73,7 +76,7 @@ public class OperationPanel extends JPanel {
         gbc.gridy = 3;
         add(exponentLabel, gbc);
         
-        exponentSpinner = new JSpinner(new SpinnerNumberModel(2, -10, 10, 1));
+        exponentSpinner = new JSpinner(new SpinnerNumberModel(2, -Integer.MAX_VALUE, Integer.MAX_VALUE, 1));
         exponentSpinner.setVisible(false);
         gbc.gridx = 1;
         add(exponentSpinner, gbc);
@@ -85,17 +88,30 @@ public class OperationPanel extends JPanel {
         calculateButton.setFont(new Font("Arial", Font.BOLD, 14));
         gbc.gridx = 0;
         gbc.gridy = 4;
-        gbc.gridwidth = 2;
+        gbc.gridwidth = 1;
         add(calculateButton, gbc);
         
+        // Enabled only while a calculation is running
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        gbc.gridx = 1;
+        add(cancelButton, gbc);
+        
         clearButton = new JButton("Reset");
         clearButton.setBackground(new Color(220, 20, 60));
         clearButton.setForeground(Color.BLACK);
+        gbc.gridx = 0;
         gbc.gridy = 5;
+        gbc.gridwidth = 2;
         add(clearButton, gbc);
         
         // Button actions
         calculateButton.addActionListener(e -> performCalculation());
+        cancelButton.addActionListener(e -> {
+            if (listener != null) {
+                listener.onCancel();
+            }
+        });
         clearButton.addActionListener(e -> {
             if (listener != null) {
                 listener.onClear();
@@ -128,6 +144,12 @@ public class OperationPanel extends JPanel {
         }
     }
     
+    // Swap Calculate for Cancel while an operation runs in the background
+    public void setRunning(boolean running) {
+        calculateButton.setEnabled(!running);
+        cancelButton.setEnabled(running);
+    }
+    
     public void setOperationListener(OperationListener listener) {
         this.listener = listener;
     }